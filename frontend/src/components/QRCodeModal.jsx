@@ -1,13 +1,37 @@
 
+import { useEffect, useState } from 'react';
 import { X, Download, Copy, Share2 } from 'lucide-react';
 import { toast } from 'react-hot-toast';
+import { linkService } from '../services/api';
+
+export default function QRCodeModal({ linkId, shortUrl, isOpen, onClose }) {
+    const [qrCodeUrl, setQrCodeUrl] = useState(null);
+
+    // QR codes are rendered on demand by the API
+    useEffect(() => {
+        if (!isOpen || !linkId) return;
+        let objectUrl = null;
+        let cancelled = false;
+        linkService.getQrCode(linkId)
+            .then((response) => {
+                if (cancelled) return;
+                objectUrl = URL.createObjectURL(response.data);
+                setQrCodeUrl(objectUrl);
+            })
+            .catch(() => toast.error('Failed to load QR code'));
+        return () => {
+            cancelled = true;
+            if (objectUrl) URL.revokeObjectURL(objectUrl);
+            setQrCodeUrl(null);
+        };
+    }, [isOpen, linkId]);
 
-export default function QRCodeModal({ qrCodeBase64, shortUrl, isOpen, onClose }) {
     if (!isOpen) return null;
 
     const handleDownload = () => {
+        if (!qrCodeUrl) return;
         const link = document.createElement('a');
-        link.href = `data:image/png;base64,${qrCodeBase64}`;
+        link.href = qrCodeUrl;
         link.download = `qrcode-${shortUrl.split('/').pop()}.png`;
         document.body.appendChild(link);
         link.click();
@@ -36,11 +60,15 @@ export default function QRCodeModal({ qrCodeBase64, shortUrl, isOpen, onClose })
                     <div className="relative group">
                         <div className="absolute -inset-1 bg-gradient-to-r from-blue-600 to-purple-600 rounded-xl blur opacity-25 group-hover:opacity-50 transition duration-1000 group-hover:duration-200"></div>
                         <div className="relative bg-white p-2 rounded-xl border border-gray-100">
-                            <img
-                                src={`data:image/png;base64,${qrCodeBase64}`}
-                                alt="QR Code"
-                                className="w-48 h-48 object-contain rounded-lg"
-                            />
+                            {qrCodeUrl ? (
+                                <img
+                                    src={qrCodeUrl}
+                                    alt="QR Code"
+                                    className="w-48 h-48 object-contain rounded-lg"
+                                />
+                            ) : (
+                                <div className="w-48 h-48 rounded-lg bg-gray-100 animate-pulse" />
+                            )}
                         </div>
                     </div>
 
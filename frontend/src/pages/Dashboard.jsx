@@ -12,7 +12,11 @@ import { Link } from 'react-router-dom';
 export default function Dashboard() {
     const { user } = useContext(AuthContext);
     const [links, setLinks] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    // Account-wide figures from the first page; the loaded pages alone would undercount them
+    const [totals, setTotals] = useState({ links: 0, activeLinks: 0, clicks: 0 });
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [modalOpen, setModalOpen] = useState(false);
     const [qrModalOpen, setQrModalOpen] = useState(false);
     const [selectedLink, setSelectedLink] = useState(null);
@@ -22,10 +26,17 @@ export default function Dashboard() {
         fetchLinks();
     }, []);
 
+    // Reloads from the first page; the total is only requested there
     const fetchLinks = async () => {
         try {
-            const { data } = await linkService.getAll();
-            setLinks(data);
+            const { data } = await linkService.getPage();
+            setLinks(data.items);
+            setNextCursor(data.nextCursor);
+            setTotals({
+                links: data.total ?? 0,
+                activeLinks: data.activeLinks ?? 0,
+                clicks: data.totalClicks ?? 0,
+            });
         } catch (error) {
             toast.error('Failed to load links');
         } finally {
@@ -33,6 +44,20 @@ export default function Dashboard() {
         }
     };
 
+    const loadMore = async () => {
+        if (!nextCursor) return;
+        setLoadingMore(true);
+        try {
+            const { data } = await linkService.getPage(nextCursor);
+            setLinks((current) => [...current, ...data.items]);
+            setNextCursor(data.nextCursor);
+        } catch (error) {
+            toast.error('Failed to load more links');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleCreate = async (data) => {
         try {
             await linkService.create(data);
@@ -61,7 +86,13 @@ export default function Dashboard() {
         try {
             await linkService.delete(id);
             toast.success('Link deleted');
+            const deleted = links.find(l => l.id === id);
             setLinks(links.filter(l => l.id !== id));
+            setTotals((current) => ({
+                links: Math.max(0, current.links - 1),
+                activeLinks: Math.max(0, current.activeLinks - (deleted?.isActive ? 1 : 0)),
+                clicks: Math.max(0, current.clicks - (deleted?.clickCount || 0)),
+            }));
         } catch (error) {
             toast.error('Failed to delete link');
         }
@@ -103,16 +134,16 @@ export default function Dashboard() {
 
                 {/* Stats Cards */}
                 <div className="grid grid-cols-1 md:grid-cols-3 gap-6 animate-fade-in-up animation-delay-100">
-                    <StatCard title="Total Links" value={links.length} color="blue" />
-                    <StatCard title="Total Clicks" value={links.reduce((acc, curr) => acc + (curr.clicks || 0), 0)} color="purple" />
-                    <StatCard title="Active Links" value={links.filter(l => l.isActive).length} color="green" />
+                    <StatCard title="Total Links" value={totals.links} color="blue" />
+                    <StatCard title="Total Clicks" value={totals.clicks} color="purple" />
+                    <StatCard title="Active Links" value={totals.activeLinks} color="green" />
                 </div>
 
                 {/* Links List */}
                 <div className="bg-white rounded-2xl shadow-sm border border-gray-100 overflow-hidden animate-fade-in-up animation-delay-200">
                     <div className="px-6 py-5 border-b border-gray-100 flex justify-between items-center bg-gray-50/30">
                         <h2 className="text-lg font-semibold text-gray-800">Your Links</h2>
-                        <span className="text-sm text-gray-500">{links.length} links found</span>
+                        <span className="text-sm text-gray-500">{totals.links} links found</span>
                     </div>
 
                     {loading ? (
@@ -159,7 +190,7 @@ export default function Dashboard() {
 
                                         <div className="flex items-center gap-6 md:gap-8 self-start md:self-center w-full md:w-auto justify-between md:justify-end">
                                             <Link to={`/analytics/${link.id}`} className="flex flex-col items-center group/stat cursor-pointer">
-                                                <span className="text-2xl font-bold text-gray-900 group-hover/stat:text-blue-600 transition-colors">{link.clicks || 0}</span>
+                                                <span className="text-2xl font-bold text-gray-900 group-hover/stat:text-blue-600 transition-colors">{link.clickCount || 0}</span>
                                                 <span className="text-xs text-gray-500 uppercase tracking-wider font-medium">Clicks</span>
                                             </Link>
 
@@ -181,6 +212,17 @@ export default function Dashboard() {
                                     </div>
                                 </div>
                             ))}
+                            {nextCursor && (
+                                <div className="p-4 flex justify-center">
+                                    <button
+                                        onClick={loadMore}
+                                        disabled={loadingMore}
+                                        className="px-4 py-2 text-sm font-medium text-blue-600 hover:bg-blue-50 rounded-lg transition-colors disabled:opacity-50"
+                                    >
+                                        {loadingMore ? 'Loading...' : 'Load more'}
+                                    </button>
+                                </div>
+                            )}
                         </div>
                     )}
                 </div>
@@ -202,7 +244,7 @@ export default function Dashboard() {
             <QRCodeModal
                 isOpen={qrModalOpen}
                 onClose={() => setQrModalOpen(false)}
-                qrCodeBase64={selectedLink?.qrCodeBase64}
+                linkId={selectedLink?.id}
                 shortUrl={selectedLink?.shortUrl}
             />
         </div>
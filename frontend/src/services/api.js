@@ -40,10 +40,13 @@ export const authService = {
 };
 
 export const linkService = {
-    getAll: () => api.get('/links'),
+    getPage: (cursor, limit = 50) =>
+        api.get('/links', { params: { cursor, limit, includeTotal: !cursor } }),
     create: (linkData) => api.post('/links', linkData),
     update: (id, linkData) => api.put(`/links/${id}`, linkData),
     delete: (id) => api.delete(`/links/${id}`),
+    getQrCode: (id, size = 300, format = 'png') =>
+        api.get(`/links/${id}/qr`, { params: { size, format }, responseType: 'blob' }),
 };
 
 export const analyticsService = {
@@ -2,6 +2,7 @@ package com.urlshortener.config;
 
 import com.urlshortener.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +16,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
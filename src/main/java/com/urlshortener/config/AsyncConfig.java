@@ -1,12 +1,87 @@
 package com.urlshortener.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bounded executor per kind of background work, so a slow Postgres stalls click writes
+ * without also stalling QR rendering or maintenance, and a backlog is capped instead of
+ * growing in heap. Each pool reports queue depth, active threads, task and queue-wait
+ * latency ({@code executor.*} meters tagged {@code name}) and {@code executor.rejected}.
+ */
 @Configuration
 @EnableAsync
-// If we were configuring TaskExecutor manually, we would do it here.
-// But Spring Boot autoconfigures it based on properties.
-// So this class is primarily to enable async processing.
+@EnableConfigurationProperties(ExecutorProperties.class)
 public class AsyncConfig {
+
+    public static final String CLICK_EXECUTOR = "clickExecutor";
+    public static final String COUNTER_EXECUTOR = "counterExecutor";
+    public static final String QR_EXECUTOR = "qrExecutor";
+    public static final String MAINTENANCE_EXECUTOR = "maintenanceExecutor";
+
+    @Bean(CLICK_EXECUTOR)
+    public ExecutorService clickExecutor(ExecutorProperties properties, MeterRegistry meterRegistry) {
+        return bounded("click", properties.getClick(), meterRegistry);
+    }
+
+    @Bean(COUNTER_EXECUTOR)
+    public ExecutorService counterExecutor(ExecutorProperties properties, MeterRegistry meterRegistry) {
+        return bounded("counter", properties.getCounter(), meterRegistry);
+    }
+
+    @Bean(QR_EXECUTOR)
+    public ExecutorService qrExecutor(ExecutorProperties properties, MeterRegistry meterRegistry) {
+        return bounded("qr", properties.getQr(), meterRegistry);
+    }
+
+    @Bean(MAINTENANCE_EXECUTOR)
+    public ExecutorService maintenanceExecutor(ExecutorProperties properties, MeterRegistry meterRegistry) {
+        return bounded("maintenance", properties.getMaintenance(), meterRegistry);
+    }
+
+    private static ExecutorService bounded(String name, ExecutorProperties.Pool pool, MeterRegistry meterRegistry) {
+        BlockingQueue<Runnable> queue = pool.getQueueCapacity() > 0
+                ? new ArrayBlockingQueue<>(pool.getQueueCapacity())
+                : new SynchronousQueue<>();
+        Counter rejected = meterRegistry.counter("executor.rejected",
+                "name", name, "policy", pool.getPolicy().name().toLowerCase());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(),
+                60, TimeUnit.SECONDS, queue, new CustomizableThreadFactory(name + "-"),
+                overloadHandler(name, pool.getPolicy(), rejected));
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name, Tags.empty());
+    }
+
+    private static RejectedExecutionHandler overloadHandler(String name, ExecutorProperties.OverloadPolicy policy,
+                                                            Counter rejected) {
+        return (task, executor) -> {
+            rejected.increment();
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException(name + " executor is shut down");
+            }
+            switch (policy) {
+                case CALLER_RUNS -> task.run();
+                case DROP_OLDEST -> {
+                    executor.getQueue().poll();
+                    executor.execute(task);
+                }
+                case SHED -> throw new RejectedExecutionException(name + " executor is saturated");
+            }
+        };
+    }
 }
@@ -0,0 +1,35 @@
+package com.urlshortener.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizes and overload behaviour of the bulkhead executors, e.g.
+ * {@code executors.qr.threads=4}, {@code executors.qr.policy=shed}.
+ */
+@Data
+@ConfigurationProperties(prefix = "executors")
+public class ExecutorProperties {
+
+    private Pool click = new Pool();
+    private Pool counter = new Pool();
+    private Pool qr = new Pool();
+    private Pool maintenance = new Pool();
+
+    public enum OverloadPolicy {
+        // Run the task on the submitting thread, slowing the producer down
+        CALLER_RUNS,
+        // Discard the longest-queued task to make room
+        DROP_OLDEST,
+        // Reject the new task with a RejectedExecutionException
+        SHED
+    }
+
+    @Data
+    public static class Pool {
+        private int threads = 1;
+        // 0 hands tasks straight to an idle thread
+        private int queueCapacity = 0;
+        private OverloadPolicy policy = OverloadPolicy.SHED;
+    }
+}
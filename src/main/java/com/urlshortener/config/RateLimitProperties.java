@@ -0,0 +1,32 @@
+package com.urlshortener.config;
+
+import com.urlshortener.entity.User;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits per plan and endpoint, e.g.
+ * {@code ratelimit.plans.FREE.create-link.capacity=10}.
+ */
+@Data
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    private Map<User.Plan, Map<String, Limit>> plans = new EnumMap<>(User.Plan.class);
+
+    public Limit limitFor(User.Plan plan, String endpoint) {
+        return plans.getOrDefault(plan, new HashMap<>()).get(endpoint);
+    }
+
+    @Data
+    public static class Limit {
+        // Burst size
+        private long capacity;
+        // Sustained rate
+        private double refillPerMinute;
+    }
+}
@@ -0,0 +1,28 @@
+package com.urlshortener.config;
+
+import com.urlshortener.controller.RedirectFastPathFilter;
+import com.urlshortener.service.AnalyticsService;
+import com.urlshortener.service.FloodGuardService;
+import com.urlshortener.service.LinkService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "redirect.fast-path.enabled", havingValue = "true")
+public class RedirectFastPathConfig {
+
+    @Bean
+    public FilterRegistrationBean<RedirectFastPathFilter> redirectFastPathFilter(LinkService linkService,
+                                                                                 AnalyticsService analyticsService,
+                                                                                 FloodGuardService floodGuardService) {
+        FilterRegistrationBean<RedirectFastPathFilter> registration = new FilterRegistrationBean<>(
+                new RedirectFastPathFilter(linkService, analyticsService, floodGuardService));
+        // Ahead of the Spring Security filter chain (order -100)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
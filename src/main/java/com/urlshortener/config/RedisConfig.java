@@ -1,14 +1,26 @@
 package com.urlshortener.config;
 
+import com.urlshortener.service.ShortCodeFilterService;
+import com.urlshortener.service.impl.CachingRedisService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+
 @Configuration
 public class RedisConfig {
 
+    // Pub/sub channel carrying short codes whose cached entry must be dropped on every node
+    public static final String LINK_INVALIDATION_CHANNEL = "links:invalidate";
+    // Pub/sub channel carrying newly created short codes (newline separated) for the negative-lookup filter
+    public static final String LINK_CREATED_CHANNEL = "links:created";
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -21,4 +33,31 @@ public class RedisConfig {
         template.setValueSerializer(new StringRedisSerializer());
         return template;
     }
+
+    // Raw bytes for the compact CachedRedirect encoding
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CachingRedisService cachingRedisService,
+                                                                       ShortCodeFilterService shortCodeFilterService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cachingRedisService.evictLocal(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(LINK_INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> new String(message.getBody(), StandardCharsets.UTF_8)
+                        .lines().forEach(shortCodeFilterService::registerLocal),
+                new ChannelTopic(LINK_CREATED_CHANNEL));
+        return container;
+    }
 }
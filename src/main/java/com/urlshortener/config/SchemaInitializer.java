@@ -0,0 +1,171 @@
+package com.urlshortener.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotent DDL that {@code ddl-auto=update} cannot express. Runs after Hibernate has
+ * created or updated the tables and before the web server accepts requests.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    // Shared with AnalyticsPartitionManager so conversion and partition maintenance never overlap
+    public static final long ANALYTICS_PARTITION_LOCK = 0x7061727469L;
+
+    // Held while the link search indexes are built, so one instance builds them
+    private static final long SEARCH_INDEX_LOCK = 0x736561726368L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shortCodeBlockSize;
+
+    public SchemaInitializer(JdbcTemplate jdbcTemplate,
+                             @Value("${shortcode.allocator.block-size}") int shortCodeBlockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shortCodeBlockSize = shortCodeBlockSize;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        // Each nextval leases the block of IDs ending at the returned value
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS short_code_seq START WITH "
+                + shortCodeBlockSize + " INCREMENT BY " + shortCodeBlockSize);
+        jdbcTemplate.execute("ALTER SEQUENCE short_code_seq INCREMENT BY " + shortCodeBlockSize);
+        // QR codes are rendered on demand now
+        jdbcTemplate.execute("ALTER TABLE links DROP COLUMN IF EXISTS qr_code_base64");
+
+        partitionAnalytics();
+
+        // Clicks before the cutoff predate the rollups and are backfilled once (AnalyticsRollupBackfill).
+        // Runs before any ingestion starts; rollups left by a version without this row count as complete.
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS analytics_rollup_backfill ("
+                + "id integer PRIMARY KEY CHECK (id = 1), cutoff timestamp NOT NULL, completed_at timestamp)");
+        // clicked_at is stamped by the application clock, so the cutoff is too
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO analytics_rollup_backfill (id, cutoff, completed_at) "
+                + "SELECT 1, ?, CASE WHEN EXISTS (SELECT 1 FROM analytics_rollup) THEN ?::timestamp END "
+                + "ON CONFLICT (id) DO NOTHING", now, now);
+
+        // How far each node's local click log has been loaded into analytics
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS click_log_checkpoint ("
+                + "node_id varchar(36) PRIMARY KEY, segment bigint NOT NULL, "
+                + "segment_offset integer NOT NULL, updated_at timestamp NOT NULL)");
+        // Logged clicks that could not be loaded even on their own, kept as raw log records
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS click_dead_letter ("
+                + "id bigserial PRIMARY KEY, node_id varchar(36) NOT NULL, payload bytea NOT NULL, "
+                + "error text, failed_at timestamp NOT NULL)");
+
+        // Cold tier: archive files of retired partitions and the links each one holds
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS analytics_archive ("
+                + "segment varchar(63) PRIMARY KEY, range_from timestamp, range_to timestamp NOT NULL, "
+                + "clicks bigint NOT NULL, size_bytes bigint NOT NULL, archived_at timestamp NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS analytics_archive_clicks ("
+                + "link_id uuid NOT NULL, segment varchar(63) NOT NULL REFERENCES analytics_archive, "
+                + "clicks bigint NOT NULL, PRIMARY KEY (link_id, segment))");
+
+        createSearchIndexes();
+        log.debug("Schema initialized");
+    }
+
+    /**
+     * Link search indexes: active-only listings, then substring matches on URL and alias. They are
+     * built CONCURRENTLY so links stay writable meanwhile, which cannot run in a transaction, so
+     * each statement autocommits on one connection that also holds a session lock. An instance
+     * that finds the lock taken leaves the build to the holder rather than waiting on it.
+     */
+    private void createSearchIndexes() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + SEARCH_INDEX_LOCK + ")")) {
+                    if (!rs.next() || !rs.getBoolean(1)) {
+                        log.info("Link search indexes are being built by another instance");
+                        return null;
+                    }
+                }
+                try {
+                    createIndexConcurrently(statement, "idx_links_user_active_created",
+                            "ON links (user_id, created_at DESC, id DESC) WHERE is_active");
+                    try {
+                        statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                    } catch (SQLException e) {
+                        // Search still works, it just scans the user's links
+                        log.warn("pg_trgm unavailable, link search will not use trigram indexes: {}", e.getMessage());
+                        return null;
+                    }
+                    createIndexConcurrently(statement, "idx_links_original_url_trgm",
+                            "ON links USING gin (original_url gin_trgm_ops)");
+                    createIndexConcurrently(statement, "idx_links_custom_alias_trgm",
+                            "ON links USING gin (custom_alias gin_trgm_ops) WHERE custom_alias IS NOT NULL");
+                } finally {
+                    statement.execute("SELECT pg_advisory_unlock(" + SEARCH_INDEX_LOCK + ")");
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void createIndexConcurrently(Statement statement, String name, String definition)
+            throws SQLException {
+        // A concurrent build that failed midway leaves an invalid index, which IF NOT EXISTS would keep
+        boolean invalid;
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT 1 FROM pg_index WHERE NOT indisvalid AND indexrelid = to_regclass('" + name + "')")) {
+            invalid = rs.next();
+        }
+        if (invalid) {
+            statement.execute("DROP INDEX CONCURRENTLY " + name);
+        }
+        statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+    }
+
+    /**
+     * Turns the plain {@code analytics} table Hibernate creates into one range-partitioned by
+     * month on {@code clicked_at}. Existing rows are not copied: the old table is attached as
+     * the partition for everything before next month, and ages out under retention as a whole.
+     * AnalyticsPartitionManager creates the monthly partitions from there on.
+     */
+    private void partitionAnalytics() {
+        jdbcTemplate.execute("""
+                DO $$
+                DECLARE
+                    next_month timestamp := date_trunc('month', now()) + interval '1 month';
+                    con record;
+                BEGIN
+                    PERFORM pg_advisory_xact_lock(%d);
+                    IF (SELECT relkind FROM pg_class WHERE oid = 'analytics'::regclass) <> 'r' THEN
+                        RETURN;
+                    END IF;
+                    -- The primary key must include the partition key, so (id) is replaced by the
+                    -- parent's (id, clicked_at) on attach. The link FK goes too: link deletion
+                    -- removes clicks explicitly.
+                    FOR con IN SELECT conname FROM pg_constraint
+                               WHERE conrelid = 'analytics'::regclass AND contype IN ('f', 'p') LOOP
+                        EXECUTE format('ALTER TABLE analytics DROP CONSTRAINT %%I', con.conname);
+                    END LOOP;
+                    ALTER TABLE analytics RENAME TO analytics_legacy;
+                    CREATE TABLE analytics (LIKE analytics_legacy INCLUDING DEFAULTS)
+                        PARTITION BY RANGE (clicked_at);
+                    ALTER TABLE analytics ADD PRIMARY KEY (id, clicked_at);
+                    EXECUTE format('ALTER TABLE analytics ATTACH PARTITION analytics_legacy FOR VALUES '
+                                   || 'FROM (MINVALUE) TO (%%L)', next_month);
+                END $$
+                """.formatted(ANALYTICS_PARTITION_LOCK));
+        // Local index on every partition, present and future
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_analytics_link_clicked ON analytics (link_id, clicked_at)");
+        // Catches clicks outside every monthly range so inserts never fail on a missing partition
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS analytics_default PARTITION OF analytics DEFAULT");
+    }
+}
@@ -41,6 +41,7 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
                                 "/error",
+                                "/actuator/health",
                                 "/{shortCode:[a-zA-Z0-9]{6,10}}" // Let ShortCode match specifically to avoid conflict
                                                                  // with other routes like /api/
                         ).permitAll()
@@ -1,19 +1,25 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.dto.request.BatchCreateLinkRequest;
 import com.urlshortener.dto.request.CreateLinkRequest;
+import com.urlshortener.dto.request.LinkSearchRequest;
+import com.urlshortener.dto.response.BatchLinkResponse;
+import com.urlshortener.dto.response.LinkPageResponse;
 import com.urlshortener.dto.response.LinkResponse;
+import com.urlshortener.dto.response.QRCodeImage;
 import com.urlshortener.entity.User;
-import com.urlshortener.exception.BadRequestException;
 import com.urlshortener.service.LinkService;
 import com.urlshortener.service.RateLimitService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
@@ -32,16 +38,35 @@ public class LinkController {
     public ResponseEntity<LinkResponse> createLink(
             @Valid @RequestBody CreateLinkRequest request,
             @AuthenticationPrincipal User user) {
-        if (!rateLimitService.checkRateLimit(user.getId().toString())) {
-            throw new BadRequestException("Rate limit exceeded. Max 10 links per minute.");
-        }
+        rateLimitService.checkRateLimit(user, RateLimitService.CREATE_LINK);
         return ResponseEntity.ok(linkService.createLink(request, user));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLinkResponse> createLinks(
+            @Valid @RequestBody BatchCreateLinkRequest request,
+            @AuthenticationPrincipal User user) {
+        // One rate-limit hit per batch, not per link
+        rateLimitService.checkRateLimit(user, RateLimitService.BATCH_CREATE);
+        return ResponseEntity.ok(linkService.createLinks(request.getLinks(), user));
+    }
+
     @GetMapping
-    public ResponseEntity<List<LinkResponse>> getUserLinks(
+    public ResponseEntity<LinkPageResponse> getUserLinks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(linkService.getUserLinks(user, cursor, limit, includeTotal));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<LinkPageResponse> searchLinks(
+            @ModelAttribute LinkSearchRequest criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(linkService.getUserLinks(user));
+        return ResponseEntity.ok(linkService.searchLinks(user, criteria, cursor, limit));
     }
 
     @PutMapping("/{id}")
@@ -52,6 +77,21 @@ public class LinkController {
         return ResponseEntity.ok(linkService.updateLink(id, request, user));
     }
 
+    // ETag/If-None-Match is handled by Spring, a match returns 304 without the body
+    @GetMapping("/{id}/qr")
+    public ResponseEntity<byte[]> getQRCode(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "300") int size,
+            @RequestParam(defaultValue = "png") String format,
+            @AuthenticationPrincipal User user) {
+        QRCodeImage image = linkService.getQRCode(id, user, size, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .eTag(image.etag())
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                .body(image.bytes());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLink(
             @PathVariable UUID id,
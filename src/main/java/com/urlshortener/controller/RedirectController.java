@@ -1,6 +1,8 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.dto.cache.CachedRedirect;
 import com.urlshortener.service.AnalyticsService;
+import com.urlshortener.service.FloodGuardService;
 import com.urlshortener.service.LinkService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -15,21 +17,31 @@ public class RedirectController {
 
     private final LinkService linkService;
     private final AnalyticsService analyticsService;
+    private final FloodGuardService floodGuardService;
 
     @GetMapping("/{shortCode}")
     public RedirectView redirect(@PathVariable String shortCode, HttpServletRequest request) {
-        String originalUrl = linkService.getOriginalUrl(shortCode);
+        FloodGuardService.Verdict verdict = floodGuardService.check(request);
+        if (verdict == FloodGuardService.Verdict.REJECT) {
+            throw floodGuardService.rejection();
+        }
+        // Already looked up and failed in RedirectFastPathFilter
+        if (request.getAttribute(RedirectFastPathFilter.RESOLVE_FAILURE_ATTRIBUTE) instanceof RuntimeException e) {
+            throw e;
+        }
+        CachedRedirect redirect = linkService.resolveRedirect(shortCode);
 
-        // Async logging
-        String ipAddress = request.getRemoteAddr();
-        String userAgent = request.getHeader("User-Agent");
-        String referer = request.getHeader("Referer");
-
-        analyticsService.logClick(shortCode, ipAddress, userAgent, referer);
+        // Async logging; flagged clients are still redirected but not counted
+        if (verdict == FloodGuardService.Verdict.ALLOW) {
+            String ipAddress = request.getRemoteAddr();
+            String userAgent = request.getHeader("User-Agent");
+            String referer = request.getHeader("Referer");
+            analyticsService.logClick(redirect.linkId(), ipAddress, userAgent, referer);
+        }
 
         RedirectView redirectView = new RedirectView();
-        redirectView.setUrl(originalUrl);
-        redirectView.setStatusCode(org.springframework.http.HttpStatus.MOVED_PERMANENTLY);
+        redirectView.setUrl(redirect.targetUrl());
+        redirectView.setStatusCode(org.springframework.http.HttpStatus.valueOf(redirect.redirectType()));
         return redirectView;
     }
 }
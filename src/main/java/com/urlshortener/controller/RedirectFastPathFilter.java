@@ -0,0 +1,97 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.dto.cache.CachedRedirect;
+import com.urlshortener.service.AnalyticsService;
+import com.urlshortener.service.FloodGuardService;
+import com.urlshortener.service.LinkService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+/**
+ * Serves successful short-code redirects straight from the servlet container, ahead of the
+ * security filter chain and the DispatcherServlet. Anything it cannot answer with a redirect
+ * (unknown, inactive or expired codes, non-matching paths) continues down the normal chain,
+ * so error responses stay exactly those of {@link RedirectController}. Clients over the flood
+ * limit are counted here and the verdict is left on the request for the controller to reuse,
+ * as is a failed lookup, so the controller answers it without resolving the code again.
+ */
+@RequiredArgsConstructor
+public class RedirectFastPathFilter implements Filter {
+
+    // Same shape as the permitAll short-code matcher in SecurityConfig
+    private static final int MIN_CODE_LENGTH = 6;
+    private static final int MAX_CODE_LENGTH = 10;
+
+    static final String RESOLVE_FAILURE_ATTRIBUTE = RedirectFastPathFilter.class.getName() + ".failure";
+
+    private final LinkService linkService;
+    private final AnalyticsService analyticsService;
+    private final FloodGuardService floodGuardService;
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        String shortCode = extractShortCode(request);
+        if (shortCode == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        FloodGuardService.Verdict verdict = floodGuardService.check(request);
+        if (verdict == FloodGuardService.Verdict.REJECT) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        CachedRedirect redirect;
+        try {
+            redirect = linkService.resolveRedirect(shortCode);
+        } catch (RuntimeException e) {
+            request.setAttribute(RESOLVE_FAILURE_ATTRIBUTE, e);
+            chain.doFilter(req, res);
+            return;
+        }
+
+        if (verdict == FloodGuardService.Verdict.ALLOW) {
+            analyticsService.logClick(redirect.linkId(), request.getRemoteAddr(),
+                    request.getHeader("User-Agent"), request.getHeader("Referer"));
+        }
+
+        HttpServletResponse response = (HttpServletResponse) res;
+        response.setStatus(redirect.redirectType());
+        response.setHeader("Location", redirect.targetUrl());
+        // Mirror the headers Spring Security adds on the regular path so clients keep counting clicks
+        response.setHeader("Cache-Control", "no-cache, no-store, max-age=0, must-revalidate");
+        response.setHeader("Pragma", "no-cache");
+        response.setHeader("Expires", "0");
+    }
+
+    private static String extractShortCode(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return null;
+        }
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length() + 1;
+        int length = uri.length() - start;
+        if (length < MIN_CODE_LENGTH || length > MAX_CODE_LENGTH || uri.charAt(start - 1) != '/') {
+            return null;
+        }
+        for (int i = start; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return null;
+            }
+        }
+        return uri.substring(start);
+    }
+}
@@ -0,0 +1,123 @@
+package com.urlshortener.dto.cache;
+
+import com.urlshortener.entity.Link;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Everything the redirect path needs to decide on and log a click, so a cache hit
+ * never has to load the {@link Link} row.
+ *
+ * Binary layout (big-endian): version:1, flags:1, redirectType:2, linkId:16, cachedUntil:8,
+ * [expiresAt epoch seconds:8 if FLAG_EXPIRES], targetUrl UTF-8 for the remainder.
+ * {@code cachedUntil} is the epoch-millis deadline of the cache entry, used for early refresh.
+ */
+public record CachedRedirect(UUID linkId,
+                             String targetUrl,
+                             boolean active,
+                             LocalDateTime expiresAt,
+                             boolean passwordProtected,
+                             int redirectType,
+                             long cachedUntil) {
+
+    private static final byte VERSION = 2;
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_PASSWORD = 1 << 1;
+    private static final int FLAG_EXPIRES = 1 << 2;
+    private static final int HEADER_BYTES = 1 + 1 + 2 + 16 + 8;
+
+    public static CachedRedirect from(Link link, Duration maxTtl) {
+        Duration ttl = clampTtl(link.getExpiresAt(), maxTtl);
+        return new CachedRedirect(
+                link.getId(),
+                link.getOriginalUrl(),
+                Boolean.TRUE.equals(link.getIsActive()),
+                link.getExpiresAt(),
+                link.getPassword() != null && !link.getPassword().isEmpty(),
+                link.getRedirectType() != null ? link.getRedirectType() : Link.DEFAULT_REDIRECT_TYPE,
+                System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Time left until {@link #cachedUntil}, never less than one second.
+     */
+    public Duration remainingTtl() {
+        return Duration.ofMillis(Math.max(1000, cachedUntil - System.currentTimeMillis()));
+    }
+
+    /**
+     * Probabilistic early expiration (XFetch): returns true with rising probability as the
+     * deadline approaches, scaled by how long a reload takes, so one caller refreshes a hot
+     * entry before it expires instead of all callers missing at once.
+     */
+    public boolean shouldRefreshEarly(long reloadMillis, double beta) {
+        double jitter = -reloadMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + jitter >= cachedUntil;
+    }
+
+    /**
+     * Caps a cache TTL so the entry does not outlive the link's expiry. Once a link has
+     * expired the decision is stable, so the full TTL applies again.
+     */
+    static Duration clampTtl(LocalDateTime expiresAt, Duration maxTtl) {
+        if (expiresAt == null) {
+            return maxTtl;
+        }
+        Duration untilExpiry = Duration.between(LocalDateTime.now(), expiresAt);
+        if (untilExpiry.isNegative() || untilExpiry.isZero()) {
+            return maxTtl;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry.plusSeconds(1) : maxTtl;
+    }
+
+    public byte[] encode() {
+        byte[] url = targetUrl.getBytes(StandardCharsets.UTF_8);
+        int flags = (active ? FLAG_ACTIVE : 0)
+                | (passwordProtected ? FLAG_PASSWORD : 0)
+                | (expiresAt != null ? FLAG_EXPIRES : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (expiresAt != null ? 8 : 0) + url.length);
+        buffer.put(VERSION)
+                .put((byte) flags)
+                .putShort((short) redirectType)
+                .putLong(linkId.getMostSignificantBits())
+                .putLong(linkId.getLeastSignificantBits())
+                .putLong(cachedUntil);
+        if (expiresAt != null) {
+            buffer.putLong(expiresAt.toEpochSecond(ZoneOffset.UTC));
+        }
+        buffer.put(url);
+        return buffer.array();
+    }
+
+    /**
+     * Returns null for payloads written in an unknown format, which callers treat as a miss.
+     */
+    public static CachedRedirect decode(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES || bytes[0] != VERSION) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        int flags = buffer.get();
+        int redirectType = buffer.getShort();
+        UUID linkId = new UUID(buffer.getLong(), buffer.getLong());
+        long cachedUntil = buffer.getLong();
+        LocalDateTime expiresAt = null;
+        if ((flags & FLAG_EXPIRES) != 0) {
+            expiresAt = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        }
+        String targetUrl = new String(bytes, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+        return new CachedRedirect(linkId, targetUrl, (flags & FLAG_ACTIVE) != 0, expiresAt,
+                (flags & FLAG_PASSWORD) != 0, redirectType, cachedUntil);
+    }
+}
@@ -0,0 +1,104 @@
+package com.urlshortener.dto.event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Binary layout (big-endian) used in the click log: version:1, linkId:16, clickedAt epoch
+ * micros:8, then ipAddress, userAgent and referer each as length:2 (-1 for null) + UTF-8.
+ */
+public record ClickEvent(UUID linkId,
+                         LocalDateTime clickedAt,
+                         String ipAddress,
+                         String userAgent,
+                         String referer) {
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + 16 + 8;
+    // Longer header values are cut; the analytics columns hold 255 characters anyway
+    private static final int MAX_FIELD_BYTES = Short.MAX_VALUE;
+
+    public byte[] encode() {
+        byte[] ip = utf8(ipAddress);
+        byte[] agent = utf8(userAgent);
+        byte[] ref = utf8(referer);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + fieldSize(ip) + fieldSize(agent) + fieldSize(ref));
+        buffer.put(VERSION)
+                .putLong(linkId.getMostSignificantBits())
+                .putLong(linkId.getLeastSignificantBits())
+                .putLong(toEpochMicros(clickedAt));
+        putField(buffer, ip);
+        putField(buffer, agent);
+        putField(buffer, ref);
+        return buffer.array();
+    }
+
+    /**
+     * Returns null for records written in an unknown format or cut short.
+     */
+    public static ClickEvent decode(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES + 6 || bytes[0] != VERSION) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        UUID linkId = new UUID(buffer.getLong(), buffer.getLong());
+        LocalDateTime clickedAt = fromEpochMicros(buffer.getLong());
+        try {
+            return new ClickEvent(linkId, clickedAt, getField(buffer), getField(buffer), getField(buffer));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_FIELD_BYTES) {
+            return bytes;
+        }
+        // Cut on a character boundary
+        int end = MAX_FIELD_BYTES;
+        while ((bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static int fieldSize(byte[] value) {
+        return 2 + (value != null ? value.length : 0);
+    }
+
+    private static void putField(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static String getField(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
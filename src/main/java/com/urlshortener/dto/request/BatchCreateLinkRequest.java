@@ -0,0 +1,16 @@
+package com.urlshortener.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchCreateLinkRequest {
+
+    // Items are validated one by one so a bad item does not fail the whole batch
+    @NotEmpty(message = "At least one link is required")
+    @Size(max = 1000, message = "At most 1000 links per batch")
+    private List<CreateLinkRequest> links;
+}
@@ -20,4 +20,7 @@ public class CreateLinkRequest {
 
     @Future(message = "Expiration date must be in the future")
     private LocalDateTime expiresAt;
+
+    // Optional, 301 (default), 302, 307 or 308
+    private Integer redirectType;
 }
@@ -0,0 +1,31 @@
+package com.urlshortener.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for {@code GET /api/links/search}; every field is optional and they combine with AND.
+ */
+@Data
+public class LinkSearchRequest {
+
+    // Substring of the destination URL, short code or alias
+    private String q;
+
+    // Destination host, e.g. "example.com"
+    private String domain;
+
+    // Fragment of the custom alias or short code
+    private String alias;
+
+    // active, expired or inactive
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
@@ -16,6 +16,8 @@ public class AnalyticsResponse {
     private long totalClicks;
     private Map<String, Long> clicksByDate;
     private Map<String, Long> deviceDistribution;
+    private Map<String, Long> browserDistribution;
+    private Map<String, Long> topReferers;
     private List<CountryStat> topCountries;
     private List<ClickDetail> recentClicks;
 
@@ -0,0 +1,27 @@
+package com.urlshortener.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLinkResponse {
+    private int created;
+    private int failed;
+    private List<ItemResult> results; // same order as the request
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private LinkResponse link; // null if the item failed
+        private String error;
+    }
+}
@@ -0,0 +1,20 @@
+package com.urlshortener.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LinkPageResponse {
+    private List<LinkResponse> items;
+    private String nextCursor; // null on the last page
+    private Long total; // only when requested
+    private Long activeLinks; // with total
+    private Long totalClicks; // with total, trailing the per-link counts by up to a few minutes
+}
@@ -18,8 +18,8 @@ public class LinkResponse {
     private String shortUrl;
     private String shortCode;
     private Long clickCount;
-    private String qrCodeBase64;
     private LocalDateTime createdAt;
     private LocalDateTime expiresAt;
     private Boolean isActive;
+    private Integer redirectType;
 }
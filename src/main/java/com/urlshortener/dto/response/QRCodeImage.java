@@ -0,0 +1,7 @@
+package com.urlshortener.dto.response;
+
+/**
+ * A rendered QR code; {@code etag} identifies the content, size and format it was rendered from.
+ */
+public record QRCodeImage(byte[] bytes, String contentType, String etag) {
+}
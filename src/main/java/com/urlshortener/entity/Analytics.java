@@ -10,6 +10,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Raw click rows. The table is range-partitioned by month on {@code clicked_at}
+ * (see SchemaInitializer and AnalyticsPartitionManager), so its primary key is
+ * {@code (id, clicked_at)} in the database and it carries no foreign key to {@code links}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,7 +28,7 @@ public class Analytics {
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "link_id", nullable = false)
+    @JoinColumn(name = "link_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Link link;
 
     @CreationTimestamp
@@ -37,4 +42,5 @@ public class Analytics {
     private String city;
     private String deviceType;
     private String browser;
+    private String os;
 }
@@ -0,0 +1,58 @@
+package com.urlshortener.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated click counts, maintained incrementally by the click pipeline.
+ * The "clicks" dimension is bucketed per hour, every other dimension per day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "analytics_rollup")
+@IdClass(AnalyticsRollup.Key.class)
+public class AnalyticsRollup {
+
+    public static final String CLICKS = "clicks";
+    public static final String COUNTRY = "country";
+    public static final String DEVICE = "device";
+    public static final String BROWSER = "browser";
+    public static final String REFERER = "referer";
+
+    @Id
+    @Column(name = "link_id")
+    private UUID linkId;
+
+    @Id
+    private LocalDateTime bucket;
+
+    @Id
+    @Column(length = 16)
+    private String dimension;
+
+    @Id
+    private String value;
+
+    @Column(nullable = false)
+    private long clicks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID linkId;
+        private LocalDateTime bucket;
+        private String dimension;
+        private String value;
+    }
+}
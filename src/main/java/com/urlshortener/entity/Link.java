@@ -8,7 +8,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -18,10 +17,14 @@ import java.util.UUID;
 @Entity
 @Table(name = "links", indexes = {
         @Index(name = "idx_user_id", columnList = "user_id"),
-        @Index(name = "idx_short_code", columnList = "shortCode")
+        @Index(name = "idx_short_code", columnList = "shortCode"),
+        // Serves keyset pagination of a user's links
+        @Index(name = "idx_links_user_created", columnList = "user_id, createdAt DESC, id DESC")
 })
 public class Link {
 
+    public static final int DEFAULT_REDIRECT_TYPE = 301;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -39,9 +42,6 @@ public class Link {
     @Column(unique = true)
     private String customAlias;
 
-    @Column(length = 10000)
-    private String qrCodeBase64;
-
     private String password;
 
     private LocalDateTime expiresAt;
@@ -56,6 +56,7 @@ public class Link {
     @Builder.Default
     private Long clickCount = 0L;
 
-    @OneToMany(mappedBy = "link", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Analytics> analytics;
+    // HTTP status used for the redirect (301, 302, 307 or 308)
+    @Builder.Default
+    private Integer redirectType = DEFAULT_REDIRECT_TYPE;
 }
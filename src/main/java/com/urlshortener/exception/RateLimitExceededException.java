@@ -0,0 +1,20 @@
+package com.urlshortener.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+    private final long limit;
+    private final long remaining;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long limit, long remaining, long retryAfterSeconds) {
+        super(message);
+        this.limit = limit;
+        this.remaining = remaining;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
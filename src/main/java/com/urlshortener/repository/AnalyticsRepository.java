@@ -2,6 +2,7 @@ package com.urlshortener.repository;
 
 import com.urlshortener.entity.Analytics;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +15,12 @@ public interface AnalyticsRepository extends JpaRepository<Analytics, UUID> {
 
     List<Analytics> findByLinkIdOrderByClickedAtDesc(UUID linkId);
 
+    List<Analytics> findTop10ByLinkIdOrderByClickedAtDesc(UUID linkId);
+
+    @Modifying
+    @Query("DELETE FROM Analytics a WHERE a.link.id = :linkId")
+    int deleteAllByLinkId(UUID linkId);
+
     // Using JPQL for aggregation
 
     @Query("SELECT a.deviceType, COUNT(a) FROM Analytics a WHERE a.link.id = :linkId GROUP BY a.deviceType")
@@ -0,0 +1,25 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.entity.AnalyticsRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, AnalyticsRollup.Key> {
+
+    @Query("SELECT FUNCTION('date', r.bucket), SUM(r.clicks) FROM AnalyticsRollup r WHERE r.linkId = :linkId AND r.dimension = 'clicks' GROUP BY FUNCTION('date', r.bucket) ORDER BY FUNCTION('date', r.bucket) ASC")
+    List<Object[]> findDailyClicks(UUID linkId);
+
+    @Query("SELECT r.value, SUM(r.clicks) FROM AnalyticsRollup r WHERE r.linkId = :linkId AND r.dimension = :dimension GROUP BY r.value ORDER BY SUM(r.clicks) DESC")
+    List<Object[]> sumByDimension(UUID linkId, String dimension, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AnalyticsRollup r WHERE r.linkId = :linkId")
+    int deleteAllByLinkId(UUID linkId);
+}
@@ -1,27 +1,62 @@
 package com.urlshortener.repository;
 
 import com.urlshortener.entity.Link;
+import com.urlshortener.repository.projection.LinkSummary;
+import com.urlshortener.repository.projection.LinkTotals;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface LinkRepository extends JpaRepository<Link, UUID> {
 
+    String SUMMARY_SELECT = "SELECT l.id AS id, l.originalUrl AS originalUrl, l.shortCode AS shortCode, "
+            + "l.clickCount AS clickCount, l.createdAt AS createdAt, l.expiresAt AS expiresAt, l.isActive AS isActive, l.redirectType AS redirectType "
+            + "FROM Link l WHERE l.user.id = :userId ";
+
     Optional<Link> findByShortCode(String shortCode);
 
     Optional<Link> findByCustomAlias(String customAlias);
 
-    List<Link> findByUserIdOrderByCreatedAtDesc(UUID userId);
+    // Keyset pages over idx_links_user_created; the cursor is the last (createdAt, id) returned
+    @Query(SUMMARY_SELECT + "ORDER BY l.createdAt DESC, l.id DESC")
+    List<LinkSummary> findFirstPageByUserId(UUID userId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) "
+            + "ORDER BY l.createdAt DESC, l.id DESC")
+    List<LinkSummary> findPageByUserIdAfter(UUID userId, LocalDateTime createdAt, UUID id, Pageable pageable);
+
+    @Query("SELECT COUNT(l) AS links, "
+            + "COALESCE(SUM(CASE WHEN l.isActive = true THEN 1L ELSE 0L END), 0L) AS activeLinks, "
+            + "COALESCE(SUM(l.clickCount), 0L) AS clicks FROM Link l WHERE l.user.id = :userId")
+    LinkTotals findTotalsByUserId(UUID userId);
 
     boolean existsByShortCode(String shortCode);
 
     boolean existsByCustomAlias(String customAlias);
 
+    @Query("SELECT l.shortCode, l.customAlias FROM Link l WHERE l.shortCode IN :codes OR l.customAlias IN :codes")
+    List<Object[]> findCodesAndAliasesIn(Collection<String> codes);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT l.shortCode FROM Link l")
+    Stream<String> streamAllShortCodes();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT l.customAlias FROM Link l WHERE l.customAlias IS NOT NULL")
+    Stream<String> streamAllCustomAliases();
+
     @Query("SELECT COUNT(l) FROM Link l WHERE l.user.id = :userId AND l.isActive = true")
     long countActiveLinksByUserId(UUID userId);
 }
@@ -0,0 +1,159 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.dto.request.LinkSearchRequest;
+import com.urlshortener.repository.projection.LinkSummary;
+import com.urlshortener.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Dynamic link search. Substring filters are ILIKE patterns and the domain filter an anchored
+ * regular expression, both served by the pg_trgm GIN indexes; status filters line up with the
+ * partial index on active links, and pages are keyset-based on {@code (created_at, id)} like
+ * the plain listing. See SchemaInitializer for the indexes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LinkSearchRepository {
+
+    private static final String SELECT = "SELECT id, original_url, short_code, click_count, created_at, "
+            + "expires_at, is_active, redirect_type FROM links WHERE user_id = :userId";
+
+    private static final RowMapper<LinkSummary> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getObject("id", UUID.class),
+            rs.getString("original_url"),
+            rs.getString("short_code"),
+            rs.getLong("click_count"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("expires_at")),
+            rs.getBoolean("is_active"),
+            (Integer) rs.getObject("redirect_type"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<LinkSummary> search(UUID userId, LinkSearchRequest criteria, KeysetCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+
+        if (hasText(criteria.getQ())) {
+            sql.append(" AND (original_url ILIKE :q OR short_code ILIKE :q OR custom_alias ILIKE :q)");
+            params.addValue("q", "%" + escapeLike(criteria.getQ().trim()) + "%");
+        }
+        if (hasText(criteria.getDomain())) {
+            sql.append(" AND original_url ~* :domain");
+            params.addValue("domain", domainPattern(criteria.getDomain().trim().toLowerCase(Locale.ROOT)));
+        }
+        if (hasText(criteria.getAlias())) {
+            sql.append(" AND (custom_alias ILIKE :alias OR short_code ILIKE :alias)");
+            params.addValue("alias", "%" + escapeLike(criteria.getAlias().trim()) + "%");
+        }
+        if (hasText(criteria.getStatus())) {
+            sql.append(switch (criteria.getStatus().toLowerCase(Locale.ROOT)) {
+                case "active" -> " AND is_active AND (expires_at IS NULL OR expires_at > :now)";
+                case "expired" -> " AND expires_at <= :now";
+                case "inactive" -> " AND NOT is_active";
+                default -> throw new IllegalArgumentException("Unknown link status " + criteria.getStatus());
+            });
+            params.addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= :createdFrom");
+            params.addValue("createdFrom", Timestamp.valueOf(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            sql.append(" AND created_at < :createdTo");
+            params.addValue("createdTo", Timestamp.valueOf(criteria.getCreatedTo()));
+        }
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.valueOf(after.createdAt()));
+            params.addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // Backslash is Postgres' default LIKE escape character
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // The whole host right after the scheme, with or without a www. prefix, and not a prefix of a longer one
+    static String domainPattern(String domain) {
+        return "^[a-z][a-z0-9+.-]*://(www\\.)?" + escapeRegex(domain) + "([/:?#]|$)";
+    }
+
+    static String escapeRegex(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record Row(UUID id, String originalUrl, String shortCode, Long clickCount, LocalDateTime createdAt,
+                       LocalDateTime expiresAt, Boolean isActive, Integer redirectType) implements LinkSummary {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getOriginalUrl() {
+            return originalUrl;
+        }
+
+        @Override
+        public String getShortCode() {
+            return shortCode;
+        }
+
+        @Override
+        public Long getClickCount() {
+            return clickCount;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        @Override
+        public Boolean getIsActive() {
+            return isActive;
+        }
+
+        @Override
+        public Integer getRedirectType() {
+            return redirectType;
+        }
+    }
+}
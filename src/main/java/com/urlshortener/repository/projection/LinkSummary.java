@@ -0,0 +1,25 @@
+package com.urlshortener.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns a link listing needs; password and the user association are never loaded.
+ */
+public interface LinkSummary {
+    UUID getId();
+
+    String getOriginalUrl();
+
+    String getShortCode();
+
+    Long getClickCount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getExpiresAt();
+
+    Boolean getIsActive();
+
+    Integer getRedirectType();
+}
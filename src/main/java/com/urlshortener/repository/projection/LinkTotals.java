@@ -0,0 +1,12 @@
+package com.urlshortener.repository.projection;
+
+/**
+ * Aggregates over all of a user's links, for the figures a paged listing cannot add up itself.
+ */
+public interface LinkTotals {
+    Long getLinks();
+
+    Long getActiveLinks();
+
+    Long getClicks();
+}
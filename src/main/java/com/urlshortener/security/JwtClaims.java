@@ -0,0 +1,24 @@
+package com.urlshortener.security;
+
+import com.urlshortener.entity.User;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The verified contents of an access token.
+ */
+public record JwtClaims(String email, UUID userId, User.Plan plan, Instant expiresAt) {
+
+    /**
+     * A detached {@link User} carrying only what the token states, used as the request principal.
+     * It has no password and no links; services needing more load the row themselves.
+     */
+    public User toPrincipal() {
+        return User.builder()
+                .id(userId)
+                .email(email)
+                .plan(plan)
+                .build();
+    }
+}
@@ -2,12 +2,13 @@ package com.urlshortener.security;
 
 import com.urlshortener.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -15,31 +16,51 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Decoded once; the parser is immutable and thread-safe
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long jwtExpiration) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.jwtExpiration = jwtExpiration;
+    }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verifies signature and expiry and reads the claims in a single parse.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        String userId = claims.get("userId", String.class);
+        String plan = claims.get("plan", String.class);
+        if (claims.getSubject() == null || userId == null) {
+            throw new JwtException("Token is missing subject or userId");
+        }
+        try {
+            return new JwtClaims(
+                    claims.getSubject(),
+                    UUID.fromString(userId),
+                    plan != null ? User.Plan.valueOf(plan) : User.Plan.FREE,
+                    claims.getExpiration().toInstant());
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Token has malformed claims", e);
+        }
     }
 
-    public UUID extractUserId(String token) {
-        // We stored userId as a claim or subject?
-        // Let's store userId in claims.
-        Claims claims = extractAllClaims(token);
-        return UUID.fromString(claims.get("userId", String.class));
+    public String extractUsername(String token) {
+        return parse(token).email();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public UUID extractUserId(String token) {
+        return parse(token).userId();
     }
 
     public String generateToken(User user) {
@@ -55,33 +76,7 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
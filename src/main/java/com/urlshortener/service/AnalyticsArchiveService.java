@@ -0,0 +1,13 @@
+package com.urlshortener.service;
+
+import com.urlshortener.util.ClickArchive;
+
+import java.util.UUID;
+
+public interface AnalyticsArchiveService {
+    ClickArchive.Summary summarize(UUID linkId); // clicks of the link moved to the cold tier, empty if none
+
+    int archive(); // moves analytics partitions past the threshold into archive files, returns how many
+
+    void forget(UUID linkId);
+}
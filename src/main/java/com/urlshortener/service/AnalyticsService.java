@@ -6,7 +6,7 @@ import com.urlshortener.entity.User;
 import java.util.UUID;
 
 public interface AnalyticsService {
-    void logClick(String shortCode, String ipAddress, String userAgent, String referer);
+    void logClick(UUID linkId, String ipAddress, String userAgent, String referer);
 
     AnalyticsResponse getAnalytics(UUID linkId, User user);
 }
@@ -0,0 +1,13 @@
+package com.urlshortener.service;
+
+import java.util.UUID;
+
+public interface ClickCounterService {
+    void increment(UUID linkId);
+
+    long pending(UUID linkId); // clicks counted in memory but not yet flushed to links.click_count
+
+    void flush();
+
+    void reconcile(); // rebuilds links.click_count from the rollups and the archive
+}
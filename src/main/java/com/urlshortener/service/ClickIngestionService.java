@@ -0,0 +1,7 @@
+package com.urlshortener.service;
+
+import com.urlshortener.dto.event.ClickEvent;
+
+public interface ClickIngestionService {
+    boolean submit(ClickEvent event); // false when the event had to be dropped
+}
@@ -0,0 +1,12 @@
+package com.urlshortener.service;
+
+import com.urlshortener.exception.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+
+public interface FloodGuardService {
+    enum Verdict { ALLOW, SKIP_ANALYTICS, REJECT }
+
+    Verdict check(HttpServletRequest request); // counts a request once; later calls for it reuse the verdict
+
+    RateLimitExceededException rejection();
+}
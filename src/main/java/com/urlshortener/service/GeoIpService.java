@@ -0,0 +1,7 @@
+package com.urlshortener.service;
+
+import com.urlshortener.util.GeoIpDatabase;
+
+public interface GeoIpService {
+    GeoIpDatabase.Location lookup(String ipAddress); // never null
+}
@@ -1,7 +1,12 @@
 package com.urlshortener.service;
 
+import com.urlshortener.dto.cache.CachedRedirect;
 import com.urlshortener.dto.request.CreateLinkRequest;
+import com.urlshortener.dto.request.LinkSearchRequest;
+import com.urlshortener.dto.response.BatchLinkResponse;
+import com.urlshortener.dto.response.LinkPageResponse;
 import com.urlshortener.dto.response.LinkResponse;
+import com.urlshortener.dto.response.QRCodeImage;
 import com.urlshortener.entity.User;
 
 import java.util.List;
@@ -10,12 +15,20 @@ import java.util.UUID;
 public interface LinkService {
     LinkResponse createLink(CreateLinkRequest request, User user);
 
+    BatchLinkResponse createLinks(List<CreateLinkRequest> requests, User user); // per-item results, no QR codes
+
     String getOriginalUrl(String shortCode); // returns original URL
 
-    List<LinkResponse> getUserLinks(User user);
+    CachedRedirect resolveRedirect(String shortCode); // full redirect decision, throws if not redirectable
+
+    LinkPageResponse getUserLinks(User user, String cursor, Integer limit, boolean includeTotal); // newest first
+
+    LinkPageResponse searchLinks(User user, LinkSearchRequest criteria, String cursor, Integer limit);
 
     LinkResponse updateLink(UUID linkId, CreateLinkRequest request, User user);
 
+    QRCodeImage getQRCode(UUID linkId, User user, int size, String format);
+
     void deleteLink(UUID linkId, User user);
 
     void incrementClickCount(UUID linkId);
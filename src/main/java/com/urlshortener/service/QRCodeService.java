@@ -1,5 +1,22 @@
 package com.urlshortener.service;
 
+import com.urlshortener.dto.response.QRCodeImage;
+
 public interface QRCodeService {
-    String generateQRCode(String url, int width, int height);
+    QRCodeImage render(String content, int size, Format format); // cached, size in pixels
+
+    enum Format {
+        PNG("image/png"),
+        SVG("image/svg+xml");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
 }
@@ -1,5 +1,10 @@
 package com.urlshortener.service;
 
+import com.urlshortener.entity.User;
+
 public interface RateLimitService {
-    boolean checkRateLimit(String userId);
+    String CREATE_LINK = "create-link";
+    String BATCH_CREATE = "batch-create";
+
+    void checkRateLimit(User user, String endpoint); // throws RateLimitExceededException when over the limit
 }
@@ -1,9 +1,15 @@
 package com.urlshortener.service;
 
+import com.urlshortener.dto.cache.CachedRedirect;
+
+import java.util.Map;
+
 public interface RedisService {
-    void cacheUrl(String shortCode, String originalUrl);
+    void cacheRedirect(String shortCode, CachedRedirect redirect);
+
+    void cacheRedirects(Map<String, CachedRedirect> redirects); // one pipelined round trip
 
-    String getCachedUrl(String shortCode);
+    CachedRedirect getCachedRedirect(String shortCode);
 
     void invalidateCache(String shortCode);
 }
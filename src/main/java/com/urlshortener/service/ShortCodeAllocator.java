@@ -0,0 +1,9 @@
+package com.urlshortener.service;
+
+import java.util.List;
+
+public interface ShortCodeAllocator {
+    String nextCode(); // unique, never issued before, no existence check needed by the caller
+
+    List<String> nextCodes(int count);
+}
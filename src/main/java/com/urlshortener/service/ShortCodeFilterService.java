@@ -0,0 +1,15 @@
+package com.urlshortener.service;
+
+import java.util.Collection;
+
+public interface ShortCodeFilterService {
+    boolean mightExist(String shortCode); // false means the code definitely does not exist
+
+    void register(String shortCode);
+
+    void registerAll(Collection<String> shortCodes);
+
+    void registerLocal(String shortCode);
+
+    void markMissing(String shortCode);
+}
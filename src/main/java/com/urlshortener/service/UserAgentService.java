@@ -0,0 +1,7 @@
+package com.urlshortener.service;
+
+import com.urlshortener.util.UserAgentClassifier;
+
+public interface UserAgentService {
+    UserAgentClassifier.Result classify(String userAgent);
+}
@@ -0,0 +1,267 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.SchemaInitializer;
+import com.urlshortener.service.AnalyticsArchiveService;
+import com.urlshortener.util.ClickArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cold tier for click data. Once a monthly partition of {@code analytics} lies entirely before
+ * the threshold its rows are written to a {@link ClickArchive} file, and in one transaction the
+ * file is registered in {@code analytics_archive}, the partition is dropped and the rollups of
+ * its range are deleted, so each click is counted either in the rollups or in an archive file.
+ * {@code analytics_archive_clicks} records which links each file holds, so reads only map the
+ * files a link appears in.
+ *
+ * The rows are gone from Postgres once archived, so the job is off by default and only runs
+ * with {@code analytics.archive.dir} pointing at an existing directory on durable storage that
+ * every instance mounts. One instance archives at a time.
+ */
+@Slf4j
+@Service
+public class AnalyticsArchiveServiceImpl implements AnalyticsArchiveService {
+
+    private static final String FILE_SUFFIX = ".clka";
+
+    private static final String SEGMENTS_SQL =
+            "SELECT segment FROM analytics_archive_clicks WHERE link_id = ? ORDER BY segment";
+
+    // Same fallbacks as the writer and the rollup backfill, so archived values line up with live ones
+    private static final String ROWS_SQL = "SELECT link_id, clicked_at, COALESCE(country, 'Unknown'), "
+            + "COALESCE(device_type, 'Unknown'), COALESCE(browser, 'Other'), referer FROM %s "
+            + "ORDER BY link_id, clicked_at";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    // Held for a whole run so other instances skip theirs
+    private static final long ARCHIVE_LOCK = 0x61726368697665L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int afterDays;
+    private final Path directory;
+
+    private final ConcurrentHashMap<String, ClickArchive.Reader> readers = new ConcurrentHashMap<>();
+    private final Counter archivedRows;
+    private final Counter missingSegments;
+    private final Timer scanTimer;
+
+    public AnalyticsArchiveServiceImpl(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${analytics.archive.enabled}") boolean enabled,
+                                       @Value("${analytics.archive.after-days}") int afterDays,
+                                       @Value("${analytics.archive.dir}") String directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Rows are streamed through a cursor instead of being loaded at once
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.directory = Path.of(directory);
+        if (enabled && (directory.isBlank() || !Files.isDirectory(this.directory))) {
+            throw new IllegalStateException("analytics.archive.enabled requires analytics.archive.dir to name an "
+                    + "existing directory on durable storage shared by all instances, got '" + directory + "'");
+        }
+        this.archivedRows = meterRegistry.counter("analytics.archive.rows");
+        this.missingSegments = meterRegistry.counter("analytics.archive.missing");
+        this.scanTimer = meterRegistry.timer("analytics.archive.scan");
+    }
+
+    @Override
+    public ClickArchive.Summary summarize(UUID linkId) {
+        List<String> segments = jdbcTemplate.queryForList(SEGMENTS_SQL, String.class, linkId);
+        if (segments.isEmpty()) {
+            return ClickArchive.Summary.EMPTY;
+        }
+        return scanTimer.record(() -> {
+            ClickArchive.Summary summary = ClickArchive.Summary.EMPTY;
+            for (String segment : segments) {
+                ClickArchive.Reader reader = reader(segment);
+                if (reader != null) {
+                    summary = summary.plus(reader.summarize(linkId));
+                }
+            }
+            return summary;
+        });
+    }
+
+    private ClickArchive.Reader reader(String segment) {
+        ClickArchive.Reader reader = readers.get(segment);
+        if (reader != null) {
+            return reader;
+        }
+        // Opened outside the map so a slow disk does not block other lookups
+        try {
+            reader = ClickArchive.Reader.open(directory.resolve(segment + FILE_SUFFIX));
+        } catch (NoSuchFileException e) {
+            missingSegments.increment();
+            log.warn("Archive segment {} is not in {}; its clicks are left out", segment, directory);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open archive segment " + segment, e);
+        }
+        ClickArchive.Reader existing = readers.putIfAbsent(segment, reader);
+        return existing != null ? existing : reader;
+    }
+
+    @Override
+    @Scheduled(cron = "${analytics.archive.cron}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        // A session lock on its own connection; each partition is archived in a transaction of its own
+        Integer archived = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                if (!tryLock(statement)) {
+                    log.debug("Analytics archiving is running on another instance");
+                    return 0;
+                }
+                try {
+                    return archivePartitions();
+                } finally {
+                    statement.execute("SELECT pg_advisory_unlock(" + ARCHIVE_LOCK + ")");
+                }
+            }
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private static boolean tryLock(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + ARCHIVE_LOCK + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private int archivePartitions() {
+        LocalDateTime threshold = LocalDate.now().minusDays(afterDays).atStartOfDay();
+        List<String[]> partitions = jdbcTemplate.query(AnalyticsPartitionManager.PARTITIONS_SQL,
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+        partitions.sort(Comparator.comparing(partition -> partition[0]));
+        int archived = 0;
+        for (String[] partition : partitions) {
+            LocalDateTime upper = AnalyticsPartitionManager.upperBound(partition[1]);
+            if (upper == null || upper.isAfter(threshold)) {
+                continue;
+            }
+            try {
+                archivePartition(partition[0], AnalyticsPartitionManager.lowerBound(partition[1]), upper);
+                archived++;
+            } catch (RuntimeException e) {
+                // The partition stays where it is and is picked up again on the next run
+                log.error("Archiving analytics partition {} failed", partition[0], e);
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private void archivePartition(String partition, LocalDateTime from, LocalDateTime to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + SchemaInitializer.ANALYTICS_PARTITION_LOCK + ")");
+            // Holds off late clicks for this month while it is copied; retried, they land in the default partition
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+
+            long started = System.currentTimeMillis();
+            Path file = directory.resolve(partition + FILE_SUFFIX);
+            long rows = write(partition, file);
+            long size;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            jdbcTemplate.update("INSERT INTO analytics_archive (segment, range_from, range_to, clicks, size_bytes, "
+                    + "archived_at) VALUES (?, ?, ?, ?, ?, now())", partition,
+                    from != null ? Timestamp.valueOf(from) : null, Timestamp.valueOf(to), rows, size);
+            jdbcTemplate.update("INSERT INTO analytics_archive_clicks (link_id, segment, clicks) "
+                    + "SELECT link_id, ?, COUNT(*) FROM " + partition + " GROUP BY link_id", partition);
+            int rollups = from != null
+                    ? jdbcTemplate.update("DELETE FROM analytics_rollup WHERE bucket >= ? AND bucket < ?",
+                            Timestamp.valueOf(from), Timestamp.valueOf(to))
+                    : jdbcTemplate.update("DELETE FROM analytics_rollup WHERE bucket < ?", Timestamp.valueOf(to));
+            jdbcTemplate.execute("ALTER TABLE analytics DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+
+            archivedRows.increment(rows);
+            log.info("Archived analytics partition {}: {} clicks in {} bytes, {} rollup rows pruned, {} ms",
+                    partition, rows, size, rollups, System.currentTimeMillis() - started);
+        });
+    }
+
+    /**
+     * Writes the partition to {@code file} via a temporary file, synced before it is moved into
+     * place. A file left behind by a rolled back run is not registered and gets overwritten.
+     */
+    private long write(String partition, Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            long rows;
+            try (ClickArchive.Writer writer = new ClickArchive.Writer(temporary)) {
+                streamingJdbcTemplate.query(ROWS_SQL.formatted(partition), rs -> {
+                    try {
+                        writer.add(new ClickArchive.Click(
+                                rs.getObject(1, UUID.class),
+                                rs.getTimestamp(2).toLocalDateTime(),
+                                rs.getString(3),
+                                rs.getString(4),
+                                rs.getString(5),
+                                ClickEventWriter.refererHost(rs.getString(6))));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                rows = writer.rows();
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // A reader mapped from an earlier attempt would see the replaced file
+            readers.remove(partition);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive for " + partition, e);
+        }
+    }
+
+    @Override
+    public void forget(UUID linkId) {
+        // The clicks stay in the files, unreachable without the link
+        jdbcTemplate.update("DELETE FROM analytics_archive_clicks WHERE link_id = ?", linkId);
+    }
+}
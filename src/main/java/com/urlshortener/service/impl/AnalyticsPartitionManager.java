@@ -0,0 +1,163 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.config.SchemaInitializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code analytics} ahead of the clock and retires those past
+ * retention. Expired partitions are detached (left as standalone tables for archiving) or
+ * dropped. Dashboards read aggregates from {@code analytics_rollup}, which retention does not
+ * touch, so only the raw rows go. With the cold tier on, partitions are archived well before
+ * they expire (see {@link AnalyticsArchiveServiceImpl}).
+ */
+@Slf4j
+@Component
+public class AnalyticsPartitionManager {
+
+    private static final String PARENT = "analytics";
+    private static final String DEFAULT_PARTITION = "analytics_default";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'analytics_y'yyyy'm'MM");
+    private static final Pattern LOWER_BOUND = Pattern.compile("FROM \\('([^']+)'\\)");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    static final String PARTITIONS_SQL = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'analytics'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+
+    public AnalyticsPartitionManager(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${analytics.partitions.months-ahead}") int monthsAhead,
+                                     @Value("${analytics.retention.months}") int retentionMonths,
+                                     @Value("${analytics.retention.action}") String action) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = switch (action.toLowerCase(Locale.ROOT)) {
+            case "drop" -> true;
+            case "detach" -> false;
+            default -> throw new IllegalArgumentException("Unknown analytics.retention.action: " + action);
+        };
+    }
+
+    @Async(AsyncConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${analytics.partitions.maintenance-cron}")
+    public void maintain() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + SchemaInitializer.ANALYTICS_PARTITION_LOCK + ")");
+                YearMonth current = YearMonth.now();
+                Set<String> existing = new HashSet<>();
+                // The pre-partitioning table, attached from MINVALUE, also covers the month it was converted in
+                LocalDateTime legacyUntil = null;
+                List<String[]> partitions = jdbcTemplate.query(PARTITIONS_SQL,
+                        (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+                for (String[] partition : partitions) {
+                    existing.add(partition[0]);
+                    if (partition[1].contains("MINVALUE")) {
+                        legacyUntil = upperBound(partition[1]);
+                    }
+                }
+                for (int i = 0; i <= monthsAhead; i++) {
+                    YearMonth month = current.plusMonths(i);
+                    String name = month.format(NAME_FORMAT);
+                    boolean covered = legacyUntil != null && month.atDay(1).atStartOfDay().isBefore(legacyUntil);
+                    if (!existing.contains(name) && !covered) {
+                        createPartition(name, month);
+                    }
+                }
+                if (retentionMonths > 0) {
+                    LocalDateTime cutoff = current.minusMonths(retentionMonths).atDay(1).atStartOfDay();
+                    for (String[] partition : partitions) {
+                        LocalDateTime upper = upperBound(partition[1]);
+                        if (upper != null && !upper.isAfter(cutoff)) {
+                            retire(partition[0]);
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The default partition absorbs clicks meanwhile; the next run retries
+            log.error("Analytics partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Rows that already landed in the default partition for this month are moved over first,
+     * otherwise attaching the new range would fail.
+     */
+    private void createPartition(String name, YearMonth month) {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String range = "clicked_at >= '" + from + "' AND clicked_at < '" + to + "'";
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT + " INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range
+                + " RETURNING *) INSERT INTO " + name + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created analytics partition {}{}", name, moved > 0 ? " (moved " + moved + " rows from default)" : "");
+    }
+
+    private void retire(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+        if (dropExpired) {
+            jdbcTemplate.execute("DROP TABLE " + name);
+            log.info("Dropped expired analytics partition {}", name);
+        } else {
+            log.info("Detached expired analytics partition {}", name);
+        }
+    }
+
+    // Null for the default partition
+    static LocalDateTime upperBound(String partitionBound) {
+        return bound(UPPER_BOUND, partitionBound);
+    }
+
+    // Null for the default partition and the legacy one, which starts at MINVALUE
+    static LocalDateTime lowerBound(String partitionBound) {
+        return bound(LOWER_BOUND, partitionBound);
+    }
+
+    private static LocalDateTime bound(Pattern pattern, String partitionBound) {
+        Matcher matcher = pattern.matcher(partitionBound);
+        if (!matcher.find()) {
+            return null;
+        }
+        String value = matcher.group(1);
+        return value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay()
+                : LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,69 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.entity.AnalyticsRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Seeds {@code analytics_rollup} from the clicks written before rollups existed, once per
+ * database. {@link com.urlshortener.config.SchemaInitializer} records the cutoff in
+ * {@code analytics_rollup_backfill} before any click is ingested, so the backfill only counts
+ * older clicks and adds to the buckets the pipeline has filled since. The same row marks the
+ * backfill done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsRollupBackfill {
+
+    // Arbitrary application-wide key so only one node backfills
+    private static final long LOCK_KEY = 0x726f6c6c7570L;
+
+    private static final String HOUR = "date_trunc('hour', clicked_at)";
+    private static final String DAY = "date_trunc('day', clicked_at)";
+    private static final String REFERER_HOST = "COALESCE(lower(substring(referer from "
+            + "'^(?:[a-zA-Z][a-zA-Z0-9+.-]*://)?(?:[^@/?#]*@)?([^/:?#]+)')), '"
+            + ClickEventWriter.DIRECT_REFERER + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Async(AsyncConfig.MAINTENANCE_EXECUTOR)
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+        List<Timestamp> pending = jdbcTemplate.queryForList(
+                "SELECT cutoff FROM analytics_rollup_backfill WHERE completed_at IS NULL", Timestamp.class);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Timestamp cutoff = pending.get(0);
+        long started = System.currentTimeMillis();
+        int rows = insert(HOUR, AnalyticsRollup.CLICKS, "'" + ClickEventWriter.TOTAL_VALUE + "'", cutoff)
+                + insert(DAY, AnalyticsRollup.COUNTRY, "COALESCE(country, 'Unknown')", cutoff)
+                + insert(DAY, AnalyticsRollup.DEVICE, "COALESCE(device_type, 'Unknown')", cutoff)
+                + insert(DAY, AnalyticsRollup.BROWSER, "COALESCE(browser, 'Other')", cutoff)
+                + insert(DAY, AnalyticsRollup.REFERER, REFERER_HOST, cutoff);
+        jdbcTemplate.update("UPDATE analytics_rollup_backfill SET completed_at = now()");
+        log.info("Backfilled {} analytics rollup rows from clicks before {} in {} ms",
+                rows, cutoff, System.currentTimeMillis() - started);
+    }
+
+    private int insert(String bucket, String dimension, String value, Timestamp cutoff) {
+        return jdbcTemplate.update("INSERT INTO analytics_rollup (link_id, bucket, dimension, value, clicks) "
+                + "SELECT link_id, " + bucket + ", '" + dimension + "', " + value + ", COUNT(*) "
+                + "FROM analytics WHERE clicked_at < ? GROUP BY 1, 2, 4 "
+                + "ON CONFLICT (link_id, bucket, dimension, value) "
+                + "DO UPDATE SET clicks = analytics_rollup.clicks + EXCLUDED.clicks", cutoff);
+    }
+}
@@ -1,25 +1,33 @@
 package com.urlshortener.service.impl;
 
+import com.urlshortener.dto.event.ClickEvent;
 import com.urlshortener.dto.response.AnalyticsResponse;
-import com.urlshortener.entity.Analytics;
+import com.urlshortener.entity.AnalyticsRollup;
 import com.urlshortener.entity.Link;
 import com.urlshortener.entity.User;
 import com.urlshortener.exception.ResourceNotFoundException;
 import com.urlshortener.repository.AnalyticsRepository;
+import com.urlshortener.repository.AnalyticsRollupRepository;
 import com.urlshortener.repository.LinkRepository;
+import com.urlshortener.service.AnalyticsArchiveService;
 import com.urlshortener.service.AnalyticsService;
+import com.urlshortener.service.ClickCounterService;
+import com.urlshortener.service.ClickIngestionService;
 import com.urlshortener.service.LinkService;
+import com.urlshortener.util.ClickArchive;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,90 +36,28 @@ import java.util.stream.Collectors;
 public class AnalyticsServiceImpl implements AnalyticsService {
 
     private final AnalyticsRepository analyticsRepository;
+    private final AnalyticsRollupRepository rollupRepository;
     private final LinkRepository linkRepository;
     private final LinkService linkService;
+    private final ClickIngestionService clickIngestionService;
+    private final ClickCounterService clickCounterService;
+    private final AnalyticsArchiveService analyticsArchiveService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Async
     @Override
-    @Transactional
-    public void logClick(String shortCode, String ipAddress, String userAgent, String referer) {
-        Link link = linkRepository.findByShortCode(shortCode)
-                .or(() -> linkRepository.findByCustomAlias(shortCode))
-                .orElse(null);
-
-        if (link == null) {
-            return; // Or log error
-        }
-
-        // Increment click count on Link (async call)
-        linkService.incrementClickCount(link.getId());
-
-        // Parse User Agent
-        String deviceType = parseUserAgent(userAgent);
-        String browser = parseBrowser(userAgent);
-
-        // Get Country
-        String country = getCountryFromIP(ipAddress);
-
-        Analytics analytics = Analytics.builder()
-                .link(link)
-                .clickedAt(LocalDateTime.now())
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
-                .referer(referer)
-                .country(country)
-                .deviceType(deviceType)
-                .browser(browser)
-                .build();
-
-        analyticsRepository.save(analytics);
-    }
+    public void logClick(UUID linkId, String ipAddress, String userAgent, String referer) {
+        // Counted in memory, flushed to links.click_count in batches
+        linkService.incrementClickCount(linkId);
 
-    private String parseUserAgent(String userAgent) {
-        if (userAgent == null)
-            return "UNKNOWN";
-        userAgent = userAgent.toLowerCase();
-        if (userAgent.contains("mobile"))
-            return "MOBILE";
-        if (userAgent.contains("tablet"))
-            return "TABLET";
-        return "DESKTOP";
-    }
-
-    private String parseBrowser(String userAgent) {
-        if (userAgent == null)
-            return "UNKNOWN";
-        if (userAgent.contains("chrome"))
-            return "Chrome";
-        if (userAgent.contains("firefox"))
-            return "Firefox";
-        if (userAgent.contains("safari"))
-            return "Safari";
-        if (userAgent.contains("edge"))
-            return "Edge";
-        return "Other";
-    }
-
-    private String getCountryFromIP(String ip) {
-        if (ip == null || ip.equals("127.0.0.1") || ip.equals("0:0:0:0:0:0:0:1"))
-            return "Local";
-        try {
-            // Use ip-api.com free API (http://ip-api.com/json/{ip})
-            // returns JSON with country field calling 'country'
-            String url = "http://ip-api.com/json/" + ip;
-            Map response = restTemplate.getForObject(url, Map.class);
-            if (response != null && "success".equals(response.get("status"))) {
-                return (String) response.get("country");
-            }
-        } catch (Exception e) {
-            // Ignore error
-        }
-        return "Unknown";
+        // Enrichment and persistence happen in batches on the ingestion consumers
+        clickIngestionService.submit(new ClickEvent(linkId, LocalDateTime.now(), ipAddress, userAgent, referer));
     }
 
+    /**
+     * Rollups and the archive catalog are read from one snapshot, so a partition being archived
+     * meanwhile is counted exactly once.
+     */
     @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public AnalyticsResponse getAnalytics(UUID linkId, User user) {
         Link link = linkRepository.findById(linkId)
                 .orElseThrow(() -> new ResourceNotFoundException("Link not found"));
@@ -120,45 +66,60 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             throw new ResourceNotFoundException("Not authorized");
         }
 
-        List<Analytics> logs = analyticsRepository.findByLinkIdOrderByClickedAtDesc(linkId);
+        // Aggregates come from the rollup table plus the cold tier, raw rows only for the recent list
+        ClickArchive.Summary archived = analyticsArchiveService.summarize(linkId);
 
-        // Clicks by Date
-        Map<String, Long> clicksByDate = logs.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getClickedAt().toLocalDate().toString(),
-                        Collectors.counting()));
-
-        // Device Distribution
-        Map<String, Long> deviceDistribution = logs.stream()
-                .collect(Collectors.groupingBy(Analytics::getDeviceType, Collectors.counting()));
+        Map<String, Long> clicksByDate = new TreeMap<>();
+        archived.daily().forEach((day, clicks) -> clicksByDate.merge(day.toString(), clicks, Long::sum));
+        for (Object[] row : rollupRepository.findDailyClicks(linkId)) {
+            clicksByDate.merge(row[0].toString(), ((Number) row[1]).longValue(), Long::sum);
+        }
 
-        // Top Countries
-        Map<String, Long> countryMap = logs.stream()
-                .filter(a -> a.getCountry() != null)
-                .collect(Collectors.groupingBy(Analytics::getCountry, Collectors.counting()));
+        Map<String, Long> deviceDistribution = sumByDimension(linkId, AnalyticsRollup.DEVICE, archived.devices(), -1);
+        Map<String, Long> browserDistribution = sumByDimension(linkId, AnalyticsRollup.BROWSER, archived.browsers(), -1);
+        Map<String, Long> topReferers = sumByDimension(linkId, AnalyticsRollup.REFERER, archived.referers(), 5);
 
-        List<AnalyticsResponse.CountryStat> topCountries = countryMap.entrySet().stream()
-                .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
-                .limit(5)
-                .map(e -> new AnalyticsResponse.CountryStat(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
+        List<AnalyticsResponse.CountryStat> topCountries =
+                sumByDimension(linkId, AnalyticsRollup.COUNTRY, archived.countries(), 5).entrySet().stream()
+                        .map(e -> new AnalyticsResponse.CountryStat(e.getKey(), e.getValue()))
+                        .collect(Collectors.toList());
 
         // Recent Clicks (last 10)
-        List<AnalyticsResponse.ClickDetail> recentClicks = logs.stream()
-                .limit(10)
-                .map(a -> new AnalyticsResponse.ClickDetail(
-                        a.getClickedAt().toString(),
-                        a.getIpAddress(),
-                        a.getDeviceType(),
-                        a.getCountry()))
-                .collect(Collectors.toList());
+        List<AnalyticsResponse.ClickDetail> recentClicks =
+                analyticsRepository.findTop10ByLinkIdOrderByClickedAtDesc(linkId).stream()
+                        .map(a -> new AnalyticsResponse.ClickDetail(
+                                a.getClickedAt().toString(),
+                                a.getIpAddress(),
+                                a.getDeviceType(),
+                                a.getCountry()))
+                        .collect(Collectors.toList());
 
         return AnalyticsResponse.builder()
-                .totalClicks(link.getClickCount())
-                .clicksByDate(clicksByDate)
+                .totalClicks(link.getClickCount() + clickCounterService.pending(linkId))
+                .clicksByDate(new LinkedHashMap<>(clicksByDate))
                 .deviceDistribution(deviceDistribution)
+                .browserDistribution(browserDistribution)
+                .topReferers(topReferers)
                 .topCountries(topCountries)
                 .recentClicks(recentClicks)
                 .build();
     }
+
+    /**
+     * Live and archived totals of one dimension, largest first; a limit below zero keeps all.
+     */
+    private Map<String, Long> sumByDimension(UUID linkId, String dimension, Map<String, Long> archived, int limit) {
+        // With archived totals to add, the live top entries alone may not be the overall top
+        Pageable pageable = limit >= 0 && archived.isEmpty() ? PageRequest.of(0, limit) : Pageable.unpaged();
+        Map<String, Long> totals = new HashMap<>(archived);
+        for (Object[] row : rollupRepository.sumByDimension(linkId, dimension, pageable)) {
+            totals.merge((String) row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit < 0 ? Long.MAX_VALUE : limit)
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
 }
@@ -9,12 +9,15 @@ import com.urlshortener.exception.ResourceNotFoundException;
 import com.urlshortener.repository.UserRepository;
 import com.urlshortener.security.JwtUtil;
 import com.urlshortener.service.AuthService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
@@ -57,36 +60,24 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public boolean validateToken(String token) {
-        // Validation logic delegates to JwtUtil usually, but typically filter handles
-        // it.
-        // We might just return true if no exception.
-        // But JwtUtil needs UserDetails for full validation.
-        // If we just want to validation signature and expiry:
+        // Signature and expiry are both checked by the parse
         try {
-            String username = jwtUtil.extractUsername(token);
-            return username != null && !isTokenExpired(token);
-        } catch (Exception e) {
+            jwtUtil.parse(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        // This method should be public in JwtUtil or we use it here via reflection or
-        // just expose it.
-        // I made it private in JwtUtil. I should probably use isTokenValid with User
-        // details.
-        // But here we might not have user details.
-        // The requirement says "validateToken(String token): boolean" in Service.
-        // I will assume it means general validity.
-        // I'll update JwtUtil to expose validation without UserDetails if needed or
-        // load user.
-        return false; // TODO: Implement properly
-    }
-
     @Override
     public User getUserFromToken(String token) {
-        String email = jwtUtil.extractUsername(token);
-        return userRepository.findByEmail(email)
+        UUID userId;
+        try {
+            userId = jwtUtil.extractUserId(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid token");
+        }
+        return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 }
@@ -0,0 +1,160 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.repository.LinkRepository;
+import com.urlshortener.service.ShortCodeAllocator;
+import com.urlshortener.service.ShortCodeFilterService;
+import com.urlshortener.util.ShortCodeCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out short codes from blocks of numeric IDs leased from a shared counter
+ * (the {@code short_code_seq} sequence or a Redis key), so nodes never contend per code.
+ * IDs are turned into codes by {@link ShortCodeCodec}; codes grow past the minimum length
+ * once its keyspace is used up. IDs left in a block when a node stops are simply skipped.
+ *
+ * Codes generated randomly before this allocator existed, and custom aliases, can collide
+ * with an allocated code; those are caught by the short code filter plus a DB check and skipped.
+ */
+@Slf4j
+@Service
+public class BlockShortCodeAllocator implements ShortCodeAllocator {
+
+    static final String REDIS_COUNTER_KEY = "shortcode:counter";
+    // Placeholder in application.properties; anyone who has it can list the issued codes
+    private static final String DEFAULT_SECRET = "change-me-short-code-secret";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final LinkRepository linkRepository;
+    private final ShortCodeFilterService shortCodeFilterService;
+    private final ShortCodeCodec codec;
+    private final boolean useRedis;
+    private final int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextId;
+    private long blockEnd;
+    // Highest ID leased by this node, for the keyspace gauges
+    private volatile long highWaterMark;
+
+    private final Counter blocksLeased;
+    private final Counter collisionsSkipped;
+
+    public BlockShortCodeAllocator(JdbcTemplate jdbcTemplate,
+                                   StringRedisTemplate redisTemplate,
+                                   LinkRepository linkRepository,
+                                   ShortCodeFilterService shortCodeFilterService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${shortcode.allocator.source}") String source,
+                                   @Value("${shortcode.allocator.block-size}") int blockSize,
+                                   @Value("${shortcode.allocator.min-length}") int minLength,
+                                   @Value("${shortcode.allocator.permute}") boolean permute,
+                                   @Value("${shortcode.allocator.secret}") String secret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.linkRepository = linkRepository;
+        this.shortCodeFilterService = shortCodeFilterService;
+        this.useRedis = "redis".equalsIgnoreCase(source);
+        this.blockSize = blockSize;
+        // The shortCode column holds at most 10 characters
+        this.codec = permute ? ShortCodeCodec.permuted(minLength, 10, secret) : ShortCodeCodec.sequential(minLength, 10);
+        if (permute && DEFAULT_SECRET.equals(secret)) {
+            log.warn("shortcode.allocator.secret is the default; set SHORTCODE_SECRET so codes cannot be enumerated");
+        }
+
+        this.blocksLeased = meterRegistry.counter("shortcode.blocks.leased");
+        this.collisionsSkipped = meterRegistry.counter("shortcode.collisions.skipped");
+        Gauge.builder("shortcode.keyspace.usage", this, a -> a.codec.usage(a.highWaterMark))
+                .description("Fraction of the current code length's keyspace already leased")
+                .register(meterRegistry);
+        Gauge.builder("shortcode.length", this, a -> a.codec.length(a.highWaterMark))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String nextCode() {
+        while (true) {
+            String code = codec.encode(nextId());
+            if (!shortCodeFilterService.mightExist(code) || !linkRepository.existsByShortCode(code)) {
+                return code;
+            }
+            collisionsSkipped.increment();
+        }
+    }
+
+    @Override
+    public List<String> nextCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        while (codes.size() < count) {
+            long[] ids = nextIds(count - codes.size());
+            for (long id : ids) {
+                String code = codec.encode(id);
+                if (!shortCodeFilterService.mightExist(code) || !linkRepository.existsByShortCode(code)) {
+                    codes.add(code);
+                } else {
+                    collisionsSkipped.increment();
+                }
+            }
+        }
+        return codes;
+    }
+
+    // Takes the lock once for the whole run of IDs
+    private long[] nextIds(int count) {
+        long[] ids = new long[count];
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (nextId >= blockEnd) {
+                    leaseBlock();
+                }
+                ids[i] = nextId++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return ids;
+    }
+
+    private long nextId() {
+        lock.lock();
+        try {
+            if (nextId >= blockEnd) {
+                leaseBlock();
+            }
+            return nextId++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void leaseBlock() {
+        long end;
+        if (useRedis) {
+            Long value = redisTemplate.opsForValue().increment(REDIS_COUNTER_KEY, blockSize);
+            if (value == null) {
+                throw new IllegalStateException("Redis returned no value for " + REDIS_COUNTER_KEY);
+            }
+            end = value;
+        } else {
+            // The sequence steps by the block size, so each value is the end of a fresh block
+            end = jdbcTemplate.queryForObject("SELECT nextval('short_code_seq')", Long.class);
+        }
+        nextId = end - blockSize;
+        blockEnd = end;
+        highWaterMark = end;
+        blocksLeased.increment();
+        log.debug("Leased short code block [{}, {})", nextId, blockEnd);
+    }
+}
@@ -0,0 +1,117 @@
+package com.urlshortener.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.urlshortener.config.RedisConfig;
+import com.urlshortener.dto.cache.CachedRedirect;
+import com.urlshortener.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * In-process (L1) cache in front of {@link RedisServiceImpl}.
+ * Caffeine's W-TinyLFU admission keeps the hot codes resident and rejects one-hit wonders,
+ * so a viral link is served without a network round trip. Invalidations are broadcast over
+ * Redis pub/sub so every node drops its copy.
+ */
+@Service
+@Primary
+public class CachingRedisService implements RedisService {
+
+    // Rough per-entry overhead (node, key/value headers) added to the string payload
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final RedisServiceImpl delegate;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, CachedRedirect> localCache;
+    private final Duration ttl;
+
+    public CachingRedisService(RedisServiceImpl delegate,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${cache.local.max-bytes}") long maxBytes,
+                               @Value("${cache.local.ttl-seconds}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String code, CachedRedirect redirect) ->
+                        ENTRY_OVERHEAD_BYTES + 2 * (code.length() + redirect.targetUrl().length()))
+                .expireAfter(new Expiry<String, CachedRedirect>() {
+                    @Override
+                    public long expireAfterCreate(String code, CachedRedirect redirect, long currentTime) {
+                        return localTtl(redirect);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String code, CachedRedirect redirect, long currentTime,
+                                                  long currentDuration) {
+                        return localTtl(redirect);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String code, CachedRedirect redirect, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "links.local");
+    }
+
+    // Never hold an entry past its Redis deadline (which is already clamped to the link's expiry)
+    private long localTtl(CachedRedirect redirect) {
+        Duration remaining = redirect.remainingTtl();
+        return (remaining.compareTo(ttl) < 0 ? remaining : ttl).toNanos();
+    }
+
+    @Override
+    public void cacheRedirect(String shortCode, CachedRedirect redirect) {
+        delegate.cacheRedirect(shortCode, redirect);
+        localCache.put(shortCode, redirect);
+    }
+
+    // Bulk-created links are not known to be hot, so they are left for the L1 to admit on read
+    @Override
+    public void cacheRedirects(Map<String, CachedRedirect> redirects) {
+        delegate.cacheRedirects(redirects);
+    }
+
+    @Override
+    public CachedRedirect getCachedRedirect(String shortCode) {
+        CachedRedirect redirect = localCache.getIfPresent(shortCode);
+        if (redirect != null) {
+            return redirect;
+        }
+        redirect = delegate.getCachedRedirect(shortCode);
+        if (redirect != null) {
+            localCache.put(shortCode, redirect);
+        }
+        return redirect;
+    }
+
+    @Override
+    public void invalidateCache(String shortCode) {
+        localCache.invalidate(shortCode);
+        delegate.invalidateCache(shortCode);
+        // Other nodes (and this one, harmlessly) evict on receipt
+        redisTemplate.convertAndSend(RedisConfig.LINK_INVALIDATION_CHANNEL, shortCode);
+    }
+
+    /**
+     * Drops the local copy only. Called for invalidations received from other nodes.
+     */
+    public void evictLocal(String shortCode) {
+        localCache.invalidate(shortCode);
+    }
+}
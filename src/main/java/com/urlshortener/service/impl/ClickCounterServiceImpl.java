@@ -0,0 +1,153 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.service.ClickCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Click counts are accumulated per link in striped {@link LongAdder}s and periodically written
+ * as aggregated {@code click_count = click_count + ?} updates, instead of a read-modify-write
+ * of the row on every click. Scheduled flushes run on the counter executor, so a slow
+ * database holds up counter writes only, never the shared scheduler thread.
+ *
+ * An adder that took no clicks for a whole flush interval is removed, so the map only holds
+ * recently clicked links. A click that fetched it just before removal still lands on it, so
+ * removed adders keep being drained for a grace period before they are let go.
+ */
+@Slf4j
+@Service
+public class ClickCounterServiceImpl implements ClickCounterService {
+
+    private static final long RETIRE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final String INCREMENT_SQL = "UPDATE links SET click_count = click_count + ? WHERE id = ?";
+
+    // From the rollups rather than raw rows, which are dropped once past retention, plus what
+    // the cold tier took over from the rollups
+    private static final String RECONCILE_SQL = "UPDATE links l SET click_count = "
+            + "(SELECT COALESCE(SUM(r.clicks), 0) FROM analytics_rollup r "
+            + "WHERE r.link_id = l.id AND r.dimension = 'clicks') "
+            + "+ (SELECT COALESCE(SUM(a.clicks), 0) FROM analytics_archive_clicks a WHERE a.link_id = l.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService counterExecutor;
+
+    private final ConcurrentHashMap<UUID, LongAdder> counters = new ConcurrentHashMap<>();
+    // Removed idle adders, still drained until RETIRE_GRACE_NANOS; only touched under flushLock
+    private List<Retired> retired = new ArrayList<>();
+    // Not synchronized: the flush blocks on JDBC and would pin a virtual thread to its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ClickCounterServiceImpl(JdbcTemplate jdbcTemplate,
+                                   @Qualifier(AsyncConfig.COUNTER_EXECUTOR) ExecutorService counterExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counterExecutor = counterExecutor;
+    }
+
+    @Override
+    public void increment(UUID linkId) {
+        counters.computeIfAbsent(linkId, id -> new LongAdder()).increment();
+    }
+
+    @Override
+    public long pending(UUID linkId) {
+        LongAdder adder = counters.get(linkId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // With a drop-oldest queue of one, a flush still waiting behind a slow one is superseded
+    @Scheduled(fixedDelayString = "${clicks.counter.flush-interval-ms}")
+    public void scheduleFlush() {
+        counterExecutor.execute(this::flush);
+    }
+
+    @Override
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushCounters();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushCounters() {
+        Map<UUID, Long> collected = new HashMap<>();
+        // Increments that raced the removal of an idle adder
+        long now = System.nanoTime();
+        List<Retired> stillRetired = new ArrayList<>();
+        for (Retired entry : retired) {
+            long late = entry.adder().sumThenReset();
+            if (late > 0) {
+                collected.merge(entry.linkId(), late, Long::sum);
+            }
+            if (now - entry.retiredAt() < RETIRE_GRACE_NANOS) {
+                stillRetired.add(entry);
+            }
+        }
+        retired = stillRetired;
+        for (Map.Entry<UUID, LongAdder> entry : counters.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                collected.merge(entry.getKey(), delta, Long::sum);
+            } else if (counters.remove(entry.getKey(), adder)) {
+                retired.add(new Retired(entry.getKey(), adder, now));
+            }
+        }
+        if (collected.isEmpty()) {
+            return;
+        }
+        List<Object[]> deltas = new ArrayList<>(collected.size());
+        collected.forEach((linkId, delta) -> deltas.add(new Object[]{delta, linkId}));
+        // Consistent row order so concurrent flushes from several nodes cannot deadlock
+        deltas.sort(Comparator.comparing(row -> (UUID) row[1]));
+        try {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, deltas);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush click counts for {} links, retrying next round", deltas.size(), e);
+            for (Object[] row : deltas) {
+                counters.computeIfAbsent((UUID) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+        }
+    }
+
+    /**
+     * Clicks still in the ingestion pipeline when this runs are not in the rollups yet,
+     * so the result can trail the true count by that backlog.
+     */
+    @Override
+    @Transactional
+    @Scheduled(cron = "${clicks.counter.reconcile-cron}")
+    public void reconcile() {
+        flush();
+        int updated = jdbcTemplate.update(RECONCILE_SQL);
+        log.info("Reconciled click counts for {} links", updated);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private record Retired(UUID linkId, LongAdder adder, long retiredAt) {
+    }
+}
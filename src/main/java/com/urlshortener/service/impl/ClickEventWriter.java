@@ -0,0 +1,134 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.dto.event.ClickEvent;
+import com.urlshortener.entity.AnalyticsRollup;
+import com.urlshortener.service.GeoIpService;
+import com.urlshortener.service.UserAgentService;
+import com.urlshortener.util.GeoIpDatabase;
+import com.urlshortener.util.UserAgentClassifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Enriches a batch of click events and writes it to {@code analytics} as one JDBC batch,
+ * folding the same batch into {@code analytics_rollup} in the same transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClickEventWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO analytics "
+            + "(id, link_id, clicked_at, ip_address, user_agent, referer, country, city, device_type, browser, os) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_ROLLUP_SQL = "INSERT INTO analytics_rollup "
+            + "(link_id, bucket, dimension, value, clicks) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (link_id, bucket, dimension, value) "
+            + "DO UPDATE SET clicks = analytics_rollup.clicks + EXCLUDED.clicks";
+
+    // Rows are locked in a fixed order so concurrent consumers cannot deadlock on upserts
+    private static final Comparator<RollupKey> ROLLUP_ORDER = Comparator
+            .comparing(RollupKey::linkId)
+            .thenComparing(RollupKey::bucket)
+            .thenComparing(RollupKey::dimension)
+            .thenComparing(RollupKey::value);
+
+    static final String TOTAL_VALUE = "*";
+    static final String DIRECT_REFERER = "Direct";
+
+    // Default varchar length Hibernate generated for these columns
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GeoIpService geoIpService;
+    private final UserAgentService userAgentService;
+
+    @Transactional
+    public void write(List<ClickEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        Map<RollupKey, Long> rollups = new HashMap<>();
+        for (ClickEvent event : events) {
+            GeoIpDatabase.Location location = geoIpService.lookup(event.ipAddress());
+            UserAgentClassifier.Result agent = userAgentService.classify(event.userAgent());
+            UUID linkId = event.linkId();
+            LocalDateTime hour = event.clickedAt().truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime day = event.clickedAt().truncatedTo(ChronoUnit.DAYS);
+            rollups.merge(new RollupKey(linkId, hour, AnalyticsRollup.CLICKS, TOTAL_VALUE), 1L, Long::sum);
+            rollups.merge(new RollupKey(linkId, day, AnalyticsRollup.COUNTRY, location.country()), 1L, Long::sum);
+            rollups.merge(new RollupKey(linkId, day, AnalyticsRollup.DEVICE, agent.deviceType()), 1L, Long::sum);
+            rollups.merge(new RollupKey(linkId, day, AnalyticsRollup.BROWSER, agent.browser()), 1L, Long::sum);
+            rollups.merge(new RollupKey(linkId, day, AnalyticsRollup.REFERER, refererHost(event.referer())),
+                    1L, Long::sum);
+            rows.add(new Object[]{
+                    UUID.randomUUID(),
+                    event.linkId(),
+                    Timestamp.valueOf(event.clickedAt()),
+                    truncate(event.ipAddress()),
+                    truncate(event.userAgent()),
+                    truncate(event.referer()),
+                    location.country(),
+                    truncate(location.city()),
+                    agent.deviceType(),
+                    agent.browser(),
+                    agent.os()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        List<Object[]> upserts = new ArrayList<>(rollups.size());
+        rollups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ROLLUP_ORDER))
+                .forEach(e -> upserts.add(new Object[]{
+                        e.getKey().linkId(),
+                        Timestamp.valueOf(e.getKey().bucket()),
+                        e.getKey().dimension(),
+                        e.getKey().value(),
+                        e.getValue()
+                }));
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, upserts);
+    }
+
+    /**
+     * Host part of a referer URL, lower-cased, or "Direct" when there is none.
+     */
+    static String refererHost(String referer) {
+        if (referer == null || referer.isBlank()) {
+            return DIRECT_REFERER;
+        }
+        int start = referer.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < referer.length() && "/:?#".indexOf(referer.charAt(end)) < 0) {
+            end++;
+        }
+        // Drop credentials, if any
+        int at = referer.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+        if (start >= end) {
+            return DIRECT_REFERER;
+        }
+        return truncate(referer.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH ? value.substring(0, MAX_COLUMN_LENGTH) : value;
+    }
+
+    private record RollupKey(UUID linkId, LocalDateTime bucket, String dimension, String value) {
+    }
+}
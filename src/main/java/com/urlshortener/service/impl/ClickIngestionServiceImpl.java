@@ -0,0 +1,144 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.dto.event.ClickEvent;
+import com.urlshortener.service.ClickIngestionService;
+import com.urlshortener.util.MpmcRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Click capture off the request path: redirects offer events to a bounded lock-free ring,
+ * a few consumers on the click executor drain it and write batches of up to {@code batch-size}
+ * events, or whatever arrived within {@code linger-ms}. When the ring is full new events are
+ * dropped and counted rather than queued without bound. Events in the ring are lost on a
+ * crash; {@link DurableClickIngestionService} is used instead when the click log is enabled.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "clicks.wal.enabled", havingValue = "false", matchIfMissing = true)
+@DependsOn("schemaInitializer")
+public class ClickIngestionServiceImpl implements ClickIngestionService {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ClickEventWriter writer;
+    private final ExecutorService clickExecutor;
+    private final MpmcRingBuffer<ClickEvent> ring;
+    private final int consumerCount;
+    private final int batchSize;
+    private final long lingerNanos;
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Timer writeTimer;
+
+    private final List<Future<?>> consumers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public ClickIngestionServiceImpl(ClickEventWriter writer,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier(AsyncConfig.CLICK_EXECUTOR) ExecutorService clickExecutor,
+                                     @Value("${clicks.ingest.capacity}") int capacity,
+                                     @Value("${clicks.ingest.consumers}") int consumerCount,
+                                     @Value("${clicks.ingest.batch-size}") int batchSize,
+                                     @Value("${clicks.ingest.linger-ms}") long lingerMs) {
+        this.writer = writer;
+        this.clickExecutor = clickExecutor;
+        this.ring = new MpmcRingBuffer<>(capacity);
+        this.consumerCount = consumerCount;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.accepted = meterRegistry.counter("clicks.ingest.accepted");
+        this.dropped = meterRegistry.counter("clicks.ingest.dropped");
+        this.persisted = meterRegistry.counter("clicks.ingest.persisted");
+        this.failed = meterRegistry.counter("clicks.ingest.failed");
+        this.writeTimer = meterRegistry.timer("clicks.ingest.write");
+        Gauge.builder("clicks.ingest.queue.depth", ring, MpmcRingBuffer::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        // Each consumer holds one executor thread for the life of the application
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.add(clickExecutor.submit(this::consume));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Future<?> consumer : consumers) {
+            try {
+                consumer.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Click consumer did not drain cleanly", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean submit(ClickEvent event) {
+        if (ring.offer(event)) {
+            accepted.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    private void consume() {
+        List<ClickEvent> batch = new ArrayList<>(batchSize);
+        long batchStarted = 0;
+        while (running || ring.size() > 0) {
+            int drained = ring.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty() && batchStarted == 0) {
+                batchStarted = System.nanoTime();
+            }
+            boolean full = batch.size() >= batchSize;
+            boolean lingered = !batch.isEmpty() && System.nanoTime() - batchStarted >= lingerNanos;
+            if (full || lingered || (!running && !batch.isEmpty())) {
+                flush(batch);
+                batchStarted = 0;
+            } else if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ClickEvent> batch) {
+        try {
+            writeTimer.record(() -> writer.write(batch));
+            persisted.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to persist {} click events", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+}
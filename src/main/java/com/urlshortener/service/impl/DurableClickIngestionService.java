@@ -0,0 +1,316 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.dto.event.ClickEvent;
+import com.urlshortener.service.ClickIngestionService;
+import com.urlshortener.util.SegmentLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Click capture through a local write-ahead log: a click is acknowledged once it is appended
+ * to the memory-mapped {@link SegmentLog}, so clicks survive a restart or a Postgres outage.
+ * One loader on the click executor reads the log in order and writes batches to
+ * {@code analytics}, recording how far it got in {@code click_log_checkpoint} in the same
+ * transaction. After a crash loading resumes at the checkpoint, so every logged click is
+ * written exactly once. Segments behind the checkpoint are deleted.
+ *
+ * A batch that keeps failing is loaded in halves, down to single clicks; a click that fails on
+ * its own goes to {@code click_dead_letter} (raw log record plus error) so it cannot hold up
+ * the clicks behind it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "clicks.wal.enabled", havingValue = "true")
+@DependsOn("schemaInitializer")
+public class DurableClickIngestionService implements ClickIngestionService {
+
+    private static final String NODE_ID_FILE = "node-id";
+
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT segment, segment_offset FROM click_log_checkpoint WHERE node_id = ?";
+
+    private static final String UPSERT_CHECKPOINT_SQL = "INSERT INTO click_log_checkpoint "
+            + "(node_id, segment, segment_offset, updated_at) VALUES (?, ?, ?, now()) "
+            + "ON CONFLICT (node_id) DO UPDATE SET segment = EXCLUDED.segment, "
+            + "segment_offset = EXCLUDED.segment_offset, updated_at = EXCLUDED.updated_at";
+
+    private static final String INSERT_DEAD_LETTER_SQL =
+            "INSERT INTO click_dead_letter (node_id, payload, error, failed_at) VALUES (?, ?, ?, now())";
+
+    // Pause before retrying a batch the database rejected
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Failures of the same batch before it is split up
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ClickEventWriter writer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService clickExecutor;
+    private final Path directory;
+    private final int segmentBytes;
+    private final SegmentLog.Fsync fsync;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Counter corrupt;
+    private final Counter deadLettered;
+    private final Timer writeTimer;
+
+    private SegmentLog clickLog;
+    private String nodeId;
+    private Future<?> loader;
+    private volatile SegmentLog.Position loaded;
+    private volatile boolean running = true;
+    // Loader thread only
+    private String lastFailure;
+
+    public DurableClickIngestionService(ClickEventWriter writer,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Qualifier(AsyncConfig.CLICK_EXECUTOR) ExecutorService clickExecutor,
+                                        @Value("${clicks.wal.dir}") String directory,
+                                        @Value("${clicks.wal.segment-bytes}") int segmentBytes,
+                                        @Value("${clicks.wal.fsync}") String fsync,
+                                        @Value("${clicks.ingest.batch-size}") int batchSize,
+                                        @Value("${clicks.ingest.linger-ms}") long lingerMs) {
+        this.writer = writer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clickExecutor = clickExecutor;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = SegmentLog.Fsync.valueOf(fsync.toUpperCase(Locale.ROOT));
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.meterRegistry = meterRegistry;
+        this.accepted = meterRegistry.counter("clicks.ingest.accepted");
+        this.dropped = meterRegistry.counter("clicks.ingest.dropped");
+        this.persisted = meterRegistry.counter("clicks.ingest.persisted");
+        this.failed = meterRegistry.counter("clicks.ingest.failed");
+        this.corrupt = meterRegistry.counter("clicks.wal.corrupt");
+        this.deadLettered = meterRegistry.counter("clicks.wal.dead-lettered");
+        this.writeTimer = meterRegistry.timer("clicks.ingest.write");
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        clickLog = SegmentLog.open(directory, segmentBytes, fsync);
+        nodeId = readNodeId();
+        List<SegmentLog.Position> checkpoint = jdbcTemplate.query(SELECT_CHECKPOINT_SQL,
+                (rs, rowNum) -> new SegmentLog.Position(rs.getLong(1), rs.getInt(2)), nodeId);
+        loaded = checkpoint.isEmpty() ? clickLog.start() : checkpoint.get(0);
+        log.info("Click log {} opened, loading from segment {} offset {}",
+                directory, loaded.segment(), loaded.offset());
+
+        Gauge.builder("clicks.wal.bytes", clickLog, SegmentLog::sizeBytes).register(meterRegistry);
+        // Bytes appended but not yet loaded (segment slack included)
+        Gauge.builder("clicks.wal.backlog.bytes", this, DurableClickIngestionService::backlogBytes)
+                .register(meterRegistry);
+        loader = clickExecutor.submit(this::load);
+    }
+
+    // The directory outlives the process, so its identity does too
+    private String readNodeId() throws IOException {
+        Path file = directory.resolve(NODE_ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        try {
+            loader.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Click log loader did not stop cleanly; unloaded clicks stay in the log", e);
+        }
+        clickLog.close();
+    }
+
+    @Override
+    public boolean submit(ClickEvent event) {
+        try {
+            clickLog.append(event.encode());
+            accepted.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            dropped.increment();
+            log.warn("Could not append click to the log: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clicks.wal.fsync-interval-ms}")
+    public void sync() {
+        if (fsync == SegmentLog.Fsync.INTERVAL) {
+            clickLog.force();
+        }
+    }
+
+    private void load() {
+        long batchStarted = 0;
+        int failures = 0;
+        while (running) {
+            try {
+                SegmentLog.Batch batch = clickLog.read(loaded, batchSize);
+                if (batch.records().isEmpty() && batch.corrupt() == 0) {
+                    batchStarted = 0;
+                    LockSupport.parkNanos(lingerNanos);
+                    continue;
+                }
+                if (batchStarted == 0) {
+                    batchStarted = System.nanoTime();
+                }
+                // Let a partial batch fill up until it has lingered long enough
+                if (batch.records().size() < batchSize && System.nanoTime() - batchStarted < lingerNanos) {
+                    LockSupport.parkNanos(lingerNanos / 4);
+                    continue;
+                }
+                if (flush(batch)) {
+                    batchStarted = 0;
+                    failures = 0;
+                } else if (++failures >= MAX_ATTEMPTS) {
+                    log.warn("Batch of {} clicks failed {} times, loading it in parts", batch.records().size(), failures);
+                    loadInParts(batch.records().size());
+                    batchStarted = 0;
+                    failures = 0;
+                } else {
+                    LockSupport.parkNanos(RETRY_BACKOFF_NANOS);
+                }
+            } catch (RuntimeException e) {
+                // The only loader must not die; whatever it was doing is retried from the checkpoint
+                log.error("Click log loader failed, retrying", e);
+                LockSupport.parkNanos(RETRY_BACKOFF_NANOS);
+            }
+        }
+        // Whatever is left is loaded on the next start
+    }
+
+    /**
+     * Loads the next {@code count} clicks in halves, each committing its own checkpoint, until
+     * the clicks that fail on their own are found and dead-lettered.
+     */
+    private void loadInParts(int count) {
+        SegmentLog.Batch part = clickLog.read(loaded, count);
+        if (flush(part)) {
+            return;
+        }
+        if (count <= 1) {
+            deadLetter(part);
+            return;
+        }
+        int half = count / 2;
+        loadInParts(half);
+        loadInParts(count - half);
+    }
+
+    private void deadLetter(SegmentLog.Batch part) {
+        SegmentLog.Position next = part.next();
+        List<Object[]> rows = new ArrayList<>(part.records().size());
+        for (byte[] record : part.records()) {
+            rows.add(new Object[]{nodeId, record, lastFailure});
+        }
+        // Throws if the database is down, leaving the clicks in the log for the normal retry
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER_SQL, rows);
+            jdbcTemplate.update(UPSERT_CHECKPOINT_SQL, nodeId, next.segment(), next.offset());
+        });
+        deadLettered.increment(rows.size());
+        log.error("Dead-lettered {} click(s) before segment {} offset {}: {}",
+                rows.size(), next.segment(), next.offset(), lastFailure);
+        loaded = next;
+        truncate(next);
+    }
+
+    private boolean flush(SegmentLog.Batch batch) {
+        List<ClickEvent> events = new ArrayList<>(batch.records().size());
+        int undecodable = batch.corrupt();
+        for (byte[] record : batch.records()) {
+            ClickEvent event = ClickEvent.decode(record);
+            if (event != null) {
+                events.add(event);
+            } else {
+                undecodable++;
+            }
+        }
+        SegmentLog.Position next = batch.next();
+        try {
+            writeTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                if (!events.isEmpty()) {
+                    writer.write(events);
+                }
+                jdbcTemplate.update(UPSERT_CHECKPOINT_SQL, nodeId, next.segment(), next.offset());
+            }));
+        } catch (RuntimeException e) {
+            // Nothing is lost: the batch is read again from the log
+            failed.increment(events.size());
+            lastFailure = e.getMessage();
+            log.error("Failed to load {} clicks from the log, retrying", events.size(), e);
+            return false;
+        }
+        persisted.increment(events.size());
+        corrupt.increment(undecodable);
+        loaded = next;
+        truncate(next);
+        return true;
+    }
+
+    private void truncate(SegmentLog.Position committed) {
+        try {
+            clickLog.truncateBefore(committed);
+        } catch (IOException e) {
+            // Retried after the next batch; the segments are behind the checkpoint either way
+            log.warn("Could not delete loaded click log segments: {}", e.getMessage());
+        }
+    }
+
+    private long backlogBytes() {
+        SegmentLog.Position end = clickLog.end();
+        SegmentLog.Position from = loaded;
+        if (end.segment() == from.segment()) {
+            return end.offset() - from.offset();
+        }
+        return (end.segment() - from.segment() - 1) * (long) segmentBytes + end.offset()
+                + (segmentBytes - from.offset());
+    }
+}
@@ -0,0 +1,102 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.exception.RateLimitExceededException;
+import com.urlshortener.service.FloodGuardService;
+import com.urlshortener.util.IpSubnets;
+import com.urlshortener.util.SlidingCountMinSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Per-client redirect throttling held entirely in memory, so the check costs no Redis or
+ * database round trip. Requests are counted per address and per network prefix (/24, /64) in
+ * two sliding count-min sketches of fixed size; the sketches can overcount but never
+ * undercount, so a client under its limit is only flagged when it shares counters with heavy
+ * hitters. Limits are per node, not cluster-wide.
+ */
+@Service
+public class FloodGuardServiceImpl implements FloodGuardService {
+
+    private static final String VERDICT_ATTRIBUTE = FloodGuardService.class.getName() + ".verdict";
+
+    private final boolean enabled;
+    private final long perIpLimit;
+    private final long perSubnetLimit;
+    private final Verdict overLimit;
+    private final long retryAfterSeconds;
+    private final SlidingCountMinSketch ipSketch;
+    private final SlidingCountMinSketch subnetSketch;
+    private final Counter ipFlagged;
+    private final Counter subnetFlagged;
+
+    public FloodGuardServiceImpl(MeterRegistry meterRegistry,
+                                 @Value("${redirect.flood.enabled}") boolean enabled,
+                                 @Value("${redirect.flood.window-seconds}") long windowSeconds,
+                                 @Value("${redirect.flood.buckets}") int buckets,
+                                 @Value("${redirect.flood.per-ip-limit}") long perIpLimit,
+                                 @Value("${redirect.flood.per-subnet-limit}") long perSubnetLimit,
+                                 @Value("${redirect.flood.action}") String action,
+                                 @Value("${redirect.flood.sketch-width}") int width,
+                                 @Value("${redirect.flood.sketch-depth}") int depth) {
+        this.enabled = enabled;
+        this.perIpLimit = perIpLimit;
+        this.perSubnetLimit = perSubnetLimit;
+        this.overLimit = switch (action) {
+            case "reject" -> Verdict.REJECT;
+            case "skip-analytics" -> Verdict.SKIP_ANALYTICS;
+            default -> throw new IllegalArgumentException("Unknown redirect.flood.action: " + action);
+        };
+        // The oldest slice drops out of the window after one slice length
+        this.retryAfterSeconds = Math.max(1, windowSeconds / buckets);
+        Duration window = Duration.ofSeconds(windowSeconds);
+        this.ipSketch = new SlidingCountMinSketch(depth, width, window, buckets, System::currentTimeMillis);
+        this.subnetSketch = new SlidingCountMinSketch(depth, width, window, buckets, System::currentTimeMillis);
+
+        this.ipFlagged = meterRegistry.counter("redirect.flood.flagged", "scope", "ip", "action", action);
+        this.subnetFlagged = meterRegistry.counter("redirect.flood.flagged", "scope", "subnet", "action", action);
+        Gauge.builder("redirect.flood.sketch.bytes", this,
+                        g -> g.ipSketch.memoryBytes() + g.subnetSketch.memoryBytes())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Verdict check(HttpServletRequest request) {
+        Object previous = request.getAttribute(VERDICT_ATTRIBUTE);
+        if (previous instanceof Verdict verdict) {
+            return verdict;
+        }
+        // The client behind trusted proxies (server.forward-headers-strategy), not the proxy itself
+        Verdict verdict = enabled ? count(request.getRemoteAddr()) : Verdict.ALLOW;
+        request.setAttribute(VERDICT_ATTRIBUTE, verdict);
+        return verdict;
+    }
+
+    Verdict count(String ipAddress) {
+        if (ipAddress == null) {
+            return Verdict.ALLOW;
+        }
+        // Both sketches are always charged so a subnet total includes its flagged addresses
+        long perIp = ipSketch.add(ipAddress);
+        long perSubnet = subnetSketch.add(IpSubnets.prefix(ipAddress));
+        if (perIp > perIpLimit) {
+            ipFlagged.increment();
+            return overLimit;
+        }
+        if (perSubnet > perSubnetLimit) {
+            subnetFlagged.increment();
+            return overLimit;
+        }
+        return Verdict.ALLOW;
+    }
+
+    @Override
+    public RateLimitExceededException rejection() {
+        return new RateLimitExceededException("Too many redirects from this client", perIpLimit, 0, retryAfterSeconds);
+    }
+}
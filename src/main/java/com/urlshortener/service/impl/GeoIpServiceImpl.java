@@ -0,0 +1,72 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.service.GeoIpService;
+import com.urlshortener.util.GeoIpDatabase;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Local GeoIP lookups from the range file at {@code geoip.database-path}. The file is polled
+ * for changes and swapped in atomically, so a new database can be dropped in without restart.
+ */
+@Slf4j
+@Service
+public class GeoIpServiceImpl implements GeoIpService {
+
+    private static final GeoIpDatabase.Location LOCAL = new GeoIpDatabase.Location("Local", null);
+    private static final GeoIpDatabase.Location UNKNOWN = new GeoIpDatabase.Location("Unknown", null);
+
+    @Value("${geoip.database-path}")
+    private String databasePath;
+
+    private volatile GeoIpDatabase database;
+    private volatile FileTime loadedVersion;
+
+    @PostConstruct
+    void init() {
+        reloadIfChanged();
+    }
+
+    @Override
+    public GeoIpDatabase.Location lookup(String ip) {
+        if (ip == null || ip.equals("127.0.0.1") || ip.equals("0:0:0:0:0:0:0:1"))
+            return LOCAL;
+        GeoIpDatabase current = database;
+        if (current == null) {
+            return UNKNOWN;
+        }
+        GeoIpDatabase.Location location = current.lookup(ip);
+        return location != null && location.country() != null ? location : UNKNOWN;
+    }
+
+    @Scheduled(fixedDelayString = "${geoip.reload-interval-ms}", initialDelayString = "${geoip.reload-interval-ms}")
+    public void reloadIfChanged() {
+        if (databasePath == null || databasePath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(databasePath);
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(loadedVersion)) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            GeoIpDatabase loaded = GeoIpDatabase.load(path);
+            database = loaded;
+            loadedVersion = modified;
+            log.info("Loaded GeoIP database {} ({} ranges) in {} ms",
+                    path, loaded.size(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            // Keep serving from the previous database
+            log.warn("Could not load GeoIP database {}: {}", path, e.getMessage());
+        }
+    }
+}
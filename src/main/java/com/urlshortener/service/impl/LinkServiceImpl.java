@@ -1,23 +1,56 @@
 package com.urlshortener.service.impl;
 
+import com.urlshortener.dto.cache.CachedRedirect;
 import com.urlshortener.dto.request.CreateLinkRequest;
+import com.urlshortener.dto.request.LinkSearchRequest;
+import com.urlshortener.dto.response.BatchLinkResponse;
+import com.urlshortener.dto.response.LinkPageResponse;
 import com.urlshortener.dto.response.LinkResponse;
+import com.urlshortener.dto.response.QRCodeImage;
 import com.urlshortener.entity.Link;
 import com.urlshortener.entity.User;
 import com.urlshortener.exception.BadRequestException;
 import com.urlshortener.exception.ResourceNotFoundException;
+import com.urlshortener.repository.AnalyticsRepository;
+import com.urlshortener.repository.AnalyticsRollupRepository;
 import com.urlshortener.repository.LinkRepository;
+import com.urlshortener.repository.LinkSearchRepository;
+import com.urlshortener.repository.projection.LinkSummary;
+import com.urlshortener.repository.projection.LinkTotals;
+import com.urlshortener.service.AnalyticsArchiveService;
+import com.urlshortener.service.ClickCounterService;
 import com.urlshortener.service.LinkService;
 import com.urlshortener.service.QRCodeService;
 import com.urlshortener.service.RedisService;
+import com.urlshortener.service.ShortCodeAllocator;
+import com.urlshortener.service.ShortCodeFilterService;
+import com.urlshortener.util.KeysetCursor;
+import com.urlshortener.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,81 +59,322 @@ import java.util.stream.Collectors;
 public class LinkServiceImpl implements LinkService {
 
     private final LinkRepository linkRepository;
+    private final AnalyticsRepository analyticsRepository;
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsArchiveService analyticsArchiveService;
+    private final LinkSearchRepository linkSearchRepository;
     private final RedisService redisService;
     private final QRCodeService qrCodeService;
+    private final ShortCodeFilterService shortCodeFilterService;
+    private final ShortCodeAllocator shortCodeAllocator;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final ClickCounterService clickCounterService;
 
-    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private final SecureRandom random = new SecureRandom();
+    private final SingleFlight<String, CachedRedirect> redirectLoads = new SingleFlight<>();
+    // Moving average of a DB load, the scale for probabilistic early refresh
+    private volatile long reloadMillis = 10;
+
+    private static final int MIN_QR_SIZE = 64;
+    private static final int MAX_QR_SIZE = 2048;
+
+    // Construct full short URL (using a base URL or just code)
+    // Ideally injecting base URL from properties
+    private static final String BASE_URL = "http://localhost:8080/"; // Default
+
+    private static final Set<String> SEARCH_STATUSES = Set.of("active", "expired", "inactive");
+
+    // Length of the shortCode column
+    private static final int MAX_ALIAS_LENGTH = 10;
+
+    // Per-user totals for paged listings; dropped whenever the user creates or deletes links,
+    // so between those only the click total goes stale, for at most the expiry
+    private final Cache<UUID, LinkTotals> linkTotals = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    @Value("${links.page.default-size}")
+    private int defaultPageSize;
+
+    @Value("${links.page.max-size}")
+    private int maxPageSize;
+
+    @Value("${cache.redis.ttl-seconds}")
+    private long cacheTtlSeconds;
+
+    @Value("${cache.early-refresh.beta}")
+    private double earlyRefreshBeta;
 
     @Override
     @Transactional
     public LinkResponse createLink(CreateLinkRequest request, User user) {
         String shortCode;
         if (request.getCustomAlias() != null && !request.getCustomAlias().isEmpty()) {
-            if (linkRepository.existsByCustomAlias(request.getCustomAlias())) {
+            if (linkRepository.existsByCustomAlias(request.getCustomAlias())
+                    || linkRepository.existsByShortCode(request.getCustomAlias())) {
                 throw new BadRequestException("Custom alias already exists");
             }
             shortCode = request.getCustomAlias();
         } else {
-            do {
-                shortCode = generateShortCode();
-            } while (linkRepository.existsByShortCode(shortCode));
+            shortCode = shortCodeAllocator.nextCode();
         }
 
-        String qrCode = qrCodeService.generateQRCode(request.getOriginalUrl(), 300, 300);
-
         Link link = Link.builder()
                 .originalUrl(request.getOriginalUrl())
                 .shortCode(shortCode)
                 .customAlias(request.getCustomAlias())
                 .user(user)
-                .qrCodeBase64(qrCode)
                 .password(request.getPassword()) // Should be hashed in real app
                 .expiresAt(request.getExpiresAt())
                 .isActive(true)
                 .clickCount(0L)
+                .redirectType(resolveRedirectType(request.getRedirectType()))
                 .build();
 
         Link savedLink = linkRepository.save(link);
 
-        // Cache
-        redisService.cacheUrl(shortCode, request.getOriginalUrl());
+        // Cache only once the row is committed, so a rolled back create cannot replace another link's entry
+        CachedRedirect redirect = CachedRedirect.from(savedLink, Duration.ofSeconds(cacheTtlSeconds));
+        afterCommit(() -> {
+            redisService.cacheRedirect(shortCode, redirect);
+            linkTotals.invalidate(user.getId());
+        });
+        shortCodeFilterService.register(shortCode);
 
         return mapToResponse(savedLink);
     }
 
+    @Override
+    @Transactional
+    public BatchLinkResponse createLinks(List<CreateLinkRequest> requests, User user) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        BatchLinkResponse.ItemResult[] results = new BatchLinkResponse.ItemResult[requests.size()];
+
+        // Everything already taken among the requested aliases, in one query
+        Set<String> aliases = requests.stream()
+                .map(CreateLinkRequest::getCustomAlias)
+                .filter(alias -> alias != null && !alias.isEmpty())
+                .collect(Collectors.toSet());
+        Set<String> taken = new HashSet<>();
+        if (!aliases.isEmpty()) {
+            for (Object[] row : linkRepository.findCodesAndAliasesIn(aliases)) {
+                taken.add((String) row[0]);
+                if (row[1] != null) {
+                    taken.add((String) row[1]);
+                }
+            }
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Link> links = new ArrayList<>();
+        int generated = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            CreateLinkRequest request = requests.get(i);
+            String error = validateBatchItem(request, taken);
+            if (error != null) {
+                results[i] = new BatchLinkResponse.ItemResult(i, null, error);
+                continue;
+            }
+            boolean hasAlias = request.getCustomAlias() != null && !request.getCustomAlias().isEmpty();
+            if (!hasAlias) {
+                generated++;
+            }
+            indexes.add(i);
+            links.add(Link.builder()
+                    .originalUrl(request.getOriginalUrl())
+                    .shortCode(hasAlias ? request.getCustomAlias() : null)
+                    .customAlias(hasAlias ? request.getCustomAlias() : null)
+                    .user(user)
+                    .password(request.getPassword())
+                    .expiresAt(request.getExpiresAt())
+                    .isActive(true)
+                    .clickCount(0L)
+                    .redirectType(resolveRedirectType(request.getRedirectType()))
+                    .build());
+        }
+
+        Iterator<String> codes = shortCodeAllocator.nextCodes(generated).iterator();
+        for (Link link : links) {
+            if (link.getShortCode() == null) {
+                link.setShortCode(codes.next());
+            }
+        }
+
+        // Inserted with JDBC batching (hibernate.jdbc.batch_size)
+        List<Link> saved = linkRepository.saveAll(links);
+
+        Duration ttl = Duration.ofSeconds(cacheTtlSeconds);
+        Map<String, CachedRedirect> redirects = new LinkedHashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            Link link = saved.get(i);
+            redirects.put(link.getShortCode(), CachedRedirect.from(link, ttl));
+            results[indexes.get(i)] = new BatchLinkResponse.ItemResult(indexes.get(i), mapToResponse(link), null);
+        }
+        // Cache only once the rows are committed, so a failed batch leaves no entries behind
+        afterCommit(() -> {
+            redisService.cacheRedirects(redirects);
+            linkTotals.invalidate(user.getId());
+        });
+        shortCodeFilterService.registerAll(List.copyOf(redirects.keySet()));
+
+        sample.stop(meterRegistry.timer("links.batch.create"));
+        meterRegistry.counter("links.batch.created").increment(saved.size());
+        return BatchLinkResponse.builder()
+                .created(saved.size())
+                .failed(requests.size() - saved.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    // Returns the first problem with the item, or null; claims its alias in taken
+    private String validateBatchItem(CreateLinkRequest request, Set<String> taken) {
+        if (request == null) {
+            return "Link is required";
+        }
+        Set<ConstraintViolation<CreateLinkRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        try {
+            resolveRedirectType(request.getRedirectType());
+        } catch (BadRequestException e) {
+            return e.getMessage();
+        }
+        String alias = request.getCustomAlias();
+        if (alias != null && !alias.isEmpty()) {
+            if (alias.length() > MAX_ALIAS_LENGTH) {
+                return "Custom alias must be at most " + MAX_ALIAS_LENGTH + " characters";
+            }
+            if (!taken.add(alias)) {
+                return "Custom alias already exists";
+            }
+        }
+        return null;
+    }
+
     @Override
     public String getOriginalUrl(String shortCode) {
-        // Check cache
-        String cachedUrl = redisService.getCachedUrl(shortCode);
-        if (cachedUrl != null) {
-            return cachedUrl;
+        return resolveRedirect(shortCode).targetUrl();
+    }
+
+    @Override
+    public CachedRedirect resolveRedirect(String shortCode) {
+        // Reject codes that were never issued without touching Redis or the DB
+        if (!shortCodeFilterService.mightExist(shortCode)) {
+            throw new ResourceNotFoundException("Link not found");
         }
 
-        // Check DB
-        Link link = linkRepository.findByShortCode(shortCode)
-                .or(() -> linkRepository.findByCustomAlias(shortCode))
-                .orElseThrow(() -> new ResourceNotFoundException("Link not found"));
+        // Check cache; inactive and expired links are cached too so the decision is stable
+        CachedRedirect redirect = redisService.getCachedRedirect(shortCode);
+        if (redirect == null) {
+            // Only one caller per code goes to the DB, the rest share its result
+            redirect = redirectLoads.execute(shortCode, () -> loadRedirect(shortCode));
+        } else if (redirect.shouldRefreshEarly(reloadMillis, earlyRefreshBeta)) {
+            CachedRedirect refreshed = redirectLoads.executeIfIdle(shortCode, () -> loadRedirect(shortCode));
+            if (refreshed != null) {
+                redirect = refreshed;
+            }
+        }
 
-        if (!link.getIsActive()) {
+        if (!redirect.active()) {
             throw new BadRequestException("Link is inactive");
         }
 
-        if (link.getExpiresAt() != null && link.getExpiresAt().isBefore(LocalDateTime.now())) {
+        if (redirect.isExpired()) {
             throw new BadRequestException("Link has expired");
         }
 
+        return redirect;
+    }
+
+    private CachedRedirect loadRedirect(String shortCode) {
+        long started = System.currentTimeMillis();
+
+        // Check DB
+        Link link = linkRepository.findByShortCode(shortCode)
+                .or(() -> linkRepository.findByCustomAlias(shortCode))
+                .orElseThrow(() -> {
+                    shortCodeFilterService.markMissing(shortCode); // filter false positive
+                    return new ResourceNotFoundException("Link not found");
+                });
+        CachedRedirect redirect = CachedRedirect.from(link, Duration.ofSeconds(cacheTtlSeconds));
+
         // Update cache
-        redisService.cacheUrl(shortCode, link.getOriginalUrl());
+        redisService.cacheRedirect(shortCode, redirect);
+
+        reloadMillis = (reloadMillis * 7 + (System.currentTimeMillis() - started)) / 8;
+        return redirect;
+    }
 
-        return link.getOriginalUrl();
+    @Override
+    @Transactional(readOnly = true)
+    public LinkPageResponse getUserLinks(User user, String cursor, Integer limit, boolean includeTotal) {
+        KeysetCursor after = decodeCursor(cursor);
+        int pageSize = resolvePageSize(limit);
+        // One extra row tells whether there is a next page
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<LinkSummary> rows = after == null
+                ? linkRepository.findFirstPageByUserId(user.getId(), page)
+                : linkRepository.findPageByUserIdAfter(user.getId(), after.createdAt(), after.id(), page);
+        LinkTotals totals = includeTotal ? userLinkTotals(user.getId()) : null;
+        return toPage(rows, pageSize, totals);
+    }
+
+    // Not Cache.get(key, loader): that runs the query inside a map-bin monitor, pinning a virtual thread
+    private LinkTotals userLinkTotals(UUID userId) {
+        LinkTotals totals = linkTotals.getIfPresent(userId);
+        if (totals == null) {
+            totals = linkRepository.findTotalsByUserId(userId);
+            linkTotals.put(userId, totals);
+        }
+        return totals;
     }
 
     @Override
-    public List<LinkResponse> getUserLinks(User user) {
-        return linkRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public LinkPageResponse searchLinks(User user, LinkSearchRequest criteria, String cursor, Integer limit) {
+        KeysetCursor after = decodeCursor(cursor);
+        int pageSize = resolvePageSize(limit);
+        if (criteria.getCreatedFrom() != null && criteria.getCreatedTo() != null
+                && !criteria.getCreatedFrom().isBefore(criteria.getCreatedTo())) {
+            throw new BadRequestException("createdFrom must be before createdTo");
+        }
+        if (criteria.getStatus() != null && !criteria.getStatus().isBlank()
+                && !SEARCH_STATUSES.contains(criteria.getStatus().toLowerCase(Locale.ROOT))) {
+            throw new BadRequestException("Status must be active, expired or inactive");
+        }
+        return toPage(linkSearchRepository.search(user.getId(), criteria, after, pageSize + 1), pageSize, null);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    // rows holds up to pageSize + 1 entries; the extra one only signals a next page
+    private LinkPageResponse toPage(List<LinkSummary> rows, int pageSize, LinkTotals totals) {
+        boolean hasMore = rows.size() > pageSize;
+        List<LinkSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            LinkSummary last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return LinkPageResponse.builder()
+                .items(items.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .total(totals != null ? totals.getLinks() : null)
+                .activeLinks(totals != null ? totals.getActiveLinks() : null)
+                .totalClicks(totals != null ? totals.getClicks() : null)
+                .build();
+    }
+
+    private KeysetCursor decodeCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 
     @Override
@@ -117,22 +391,47 @@ public class LinkServiceImpl implements LinkService {
         link.setCustomAlias(request.getCustomAlias()); // Note: should check uniqueness if changed
         link.setPassword(request.getPassword());
         link.setExpiresAt(request.getExpiresAt());
-
-        // Update QR Code if URL changed? Yes.
-        String qrCode = qrCodeService.generateQRCode(request.getOriginalUrl(), 300, 300);
-        link.setQrCodeBase64(qrCode);
+        link.setRedirectType(resolveRedirectType(request.getRedirectType()));
 
         Link updatedLink = linkRepository.save(link);
 
-        // Invalidate cache
-        redisService.invalidateCache(link.getShortCode());
-        if (request.getCustomAlias() != null) {
-            redisService.invalidateCache(request.getCustomAlias());
+        // Invalidate cache once committed, so no reader can re-cache the old row in between
+        String shortCode = link.getShortCode();
+        String customAlias = request.getCustomAlias();
+        afterCommit(() -> {
+            redisService.invalidateCache(shortCode);
+            if (customAlias != null) {
+                redisService.invalidateCache(customAlias);
+            }
+        });
+        if (customAlias != null) {
+            shortCodeFilterService.register(customAlias);
         }
 
         return mapToResponse(updatedLink);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public QRCodeImage getQRCode(UUID linkId, User user, int size, String format) {
+        Link link = linkRepository.findById(linkId)
+                .orElseThrow(() -> new ResourceNotFoundException("Link not found"));
+
+        if (!link.getUser().getId().equals(user.getId())) {
+            throw new ResourceNotFoundException("Link not found");
+        }
+        if (size < MIN_QR_SIZE || size > MAX_QR_SIZE) {
+            throw new BadRequestException("QR size must be between " + MIN_QR_SIZE + " and " + MAX_QR_SIZE);
+        }
+        QRCodeService.Format qrFormat;
+        try {
+            qrFormat = QRCodeService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("QR format must be png or svg");
+        }
+        return qrCodeService.render(link.getOriginalUrl(), size, qrFormat);
+    }
+
     @Override
     @Transactional
     public void deleteLink(UUID linkId, User user) {
@@ -143,43 +442,77 @@ public class LinkServiceImpl implements LinkService {
             throw new BadRequestException("Unauthorized");
         }
 
+        // One statement per table; click rows are never loaded into the session
+        analyticsRepository.deleteAllByLinkId(linkId);
+        rollupRepository.deleteAllByLinkId(linkId);
+        analyticsArchiveService.forget(linkId);
         linkRepository.delete(link);
-        redisService.invalidateCache(link.getShortCode());
+        String shortCode = link.getShortCode();
+        afterCommit(() -> {
+            redisService.invalidateCache(shortCode);
+            shortCodeFilterService.markMissing(shortCode);
+            linkTotals.invalidate(user.getId());
+        });
     }
 
-    @Async
     @Override
-    @Transactional
     public void incrementClickCount(UUID linkId) {
-        Link link = linkRepository.findById(linkId).orElse(null);
-        if (link != null) {
-            link.setClickCount(link.getClickCount() + 1);
-            linkRepository.save(link);
+        // Aggregated in memory and flushed in batches
+        clickCounterService.increment(linkId);
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, or right away outside one.
+     * Cache invalidations run before commit would let a concurrent read re-cache the old row.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
-    private String generateShortCode() {
-        StringBuilder sb = new StringBuilder(6);
-        for (int i = 0; i < 6; i++) {
-            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    private int resolveRedirectType(Integer requested) {
+        if (requested == null) {
+            return Link.DEFAULT_REDIRECT_TYPE;
+        }
+        if (requested != 301 && requested != 302 && requested != 307 && requested != 308) {
+            throw new BadRequestException("Redirect type must be 301, 302, 307 or 308");
         }
-        return sb.toString();
+        return requested;
+    }
+
+    private LinkResponse mapToResponse(LinkSummary link) {
+        return LinkResponse.builder()
+                .id(link.getId())
+                .originalUrl(link.getOriginalUrl())
+                .shortUrl(BASE_URL + link.getShortCode())
+                .shortCode(link.getShortCode())
+                .clickCount(link.getClickCount() + clickCounterService.pending(link.getId()))
+                .createdAt(link.getCreatedAt())
+                .expiresAt(link.getExpiresAt())
+                .isActive(link.getIsActive())
+                .redirectType(link.getRedirectType())
+                .build();
     }
 
     private LinkResponse mapToResponse(Link link) {
-        // Construct full short URL (using a base URL or just code)
-        // Ideally injecting base URL from properties
-        String baseUrl = "http://localhost:8080/"; // Default
         return LinkResponse.builder()
                 .id(link.getId())
                 .originalUrl(link.getOriginalUrl())
-                .shortUrl(baseUrl + link.getShortCode())
+                .shortUrl(BASE_URL + link.getShortCode())
                 .shortCode(link.getShortCode())
-                .clickCount(link.getClickCount())
-                .qrCodeBase64(link.getQrCodeBase64())
+                .clickCount(link.getClickCount() + clickCounterService.pending(link.getId()))
                 .createdAt(link.getCreatedAt())
                 .expiresAt(link.getExpiresAt())
                 .isActive(link.getIsActive())
+                .redirectType(link.getRedirectType())
                 .build();
     }
 }
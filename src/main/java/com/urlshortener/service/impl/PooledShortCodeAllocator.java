@@ -0,0 +1,175 @@
+package com.urlshortener.service.impl;
+
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.repository.LinkRepository;
+import com.urlshortener.service.ShortCodeAllocator;
+import com.urlshortener.service.ShortCodeFilterService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Allocation mode for bursty bulk creation: codes are popped from an in-memory pool, which is
+ * topped up in the background whenever it falls below the low-water mark. Refills first take
+ * codes other nodes handed back (the {@code shortcode:pool} Redis set), then mint new ones from
+ * the {@link BlockShortCodeAllocator}. On graceful shutdown the unused codes go back to the set.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(name = "shortcode.allocator.mode", havingValue = "pool")
+public class PooledShortCodeAllocator implements ShortCodeAllocator {
+
+    static final String REDIS_POOL_KEY = "shortcode:pool";
+
+    private final BlockShortCodeAllocator blockAllocator;
+    private final StringRedisTemplate redisTemplate;
+    private final LinkRepository linkRepository;
+    private final ShortCodeFilterService shortCodeFilterService;
+    private final Executor taskExecutor;
+    private final int capacity;
+    private final int lowWaterMark;
+
+    private final BlockingQueue<String> pool;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final Timer refillTimer;
+    private final Counter poolMisses;
+
+    public PooledShortCodeAllocator(BlockShortCodeAllocator blockAllocator,
+                                    StringRedisTemplate redisTemplate,
+                                    LinkRepository linkRepository,
+                                    ShortCodeFilterService shortCodeFilterService,
+                                    @Qualifier(AsyncConfig.MAINTENANCE_EXECUTOR) Executor taskExecutor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${shortcode.pool.capacity}") int capacity,
+                                    @Value("${shortcode.pool.low-water-mark}") int lowWaterMark) {
+        this.blockAllocator = blockAllocator;
+        this.redisTemplate = redisTemplate;
+        this.linkRepository = linkRepository;
+        this.shortCodeFilterService = shortCodeFilterService;
+        this.taskExecutor = taskExecutor;
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("shortcode.pool.depth", pool, BlockingQueue::size).register(meterRegistry);
+        this.refillTimer = meterRegistry.timer("shortcode.pool.refill");
+        this.poolMisses = meterRegistry.counter("shortcode.pool.misses");
+    }
+
+    @Override
+    public String nextCode() {
+        String code = pool.poll();
+        if (pool.size() < lowWaterMark) {
+            requestRefill();
+        }
+        if (code == null) {
+            // Drained faster than the refill could keep up
+            poolMisses.increment();
+            return blockAllocator.nextCode();
+        }
+        return code;
+    }
+
+    @Override
+    public List<String> nextCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        pool.drainTo(codes, count);
+        if (pool.size() < lowWaterMark) {
+            requestRefill();
+        }
+        if (codes.size() < count) {
+            poolMisses.increment(count - codes.size());
+            codes.addAll(blockAllocator.nextCodes(count - codes.size()));
+        }
+        return codes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillOnStartup() {
+        requestRefill();
+    }
+
+    private void requestRefill() {
+        if (refilling.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(this::refill);
+            } catch (RuntimeException e) {
+                refilling.set(false);
+                log.warn("Could not schedule short code pool refill", e);
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            refillTimer.record(() -> {
+                int wanted = capacity - pool.size();
+                if (wanted <= 0) {
+                    return;
+                }
+                List<String> returned = redisTemplate.opsForSet().pop(REDIS_POOL_KEY, wanted);
+                if (returned != null) {
+                    for (String code : returned) {
+                        // A custom alias may have claimed the code while it sat in the set
+                        if (!shortCodeFilterService.mightExist(code) || !linkRepository.existsByShortCode(code)) {
+                            offer(code);
+                        }
+                    }
+                }
+                while (pool.size() < capacity) {
+                    if (!offer(blockAllocator.nextCode())) {
+                        break;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Short code pool refill failed", e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private boolean offer(String code) {
+        if (pool.offer(code)) {
+            return true;
+        }
+        // Pool already full; hand the code back instead of dropping it
+        redisTemplate.opsForSet().add(REDIS_POOL_KEY, code);
+        return false;
+    }
+
+    @PreDestroy
+    public void returnUnused() {
+        List<String> unused = new ArrayList<>(pool.size());
+        pool.drainTo(unused);
+        if (unused.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForSet().add(REDIS_POOL_KEY, unused.toArray(String[]::new));
+            log.info("Returned {} unused short codes to the shared pool", unused.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not return {} unused short codes, they will be skipped", unused.size(), e);
+        }
+    }
+}
@@ -1,31 +1,99 @@
 package com.urlshortener.service.impl;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.dto.response.QRCodeImage;
+import com.urlshortener.exception.ServiceUnavailableException;
 import com.urlshortener.service.QRCodeService;
+import com.urlshortener.util.QRCodeRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
-import java.io.ByteArrayOutputStream;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Renders QR codes on demand and keeps the encoded bytes in a size-bounded cache,
+ * keyed by what was encoded, so repeated views and downloads are served from memory.
+ * Cache misses are rendered on the bounded QR executor, which caps the CPU spent on rendering;
+ * when it is saturated the request fails with 503 instead of queueing.
+ */
 @Service
 public class QRCodeServiceImpl implements QRCodeService {
 
+    private final Cache<String, QRCodeImage> cache;
+    private final QRCodeRenderer renderer;
+    private final ExecutorService qrExecutor;
+    // Rendering settings are part of the cache key and ETag
+    private final String settingsKey;
+
+    public QRCodeServiceImpl(MeterRegistry meterRegistry,
+                             @Qualifier(AsyncConfig.QR_EXECUTOR) ExecutorService qrExecutor,
+                             @Value("${qr.cache.max-bytes}") long maxBytes,
+                             @Value("${qr.error-correction}") String errorCorrection,
+                             @Value("${qr.margin}") int margin) {
+        ErrorCorrectionLevel level = ErrorCorrectionLevel.valueOf(errorCorrection.toUpperCase(Locale.ROOT));
+        this.renderer = new QRCodeRenderer(level, margin);
+        this.qrExecutor = qrExecutor;
+        this.settingsKey = level + ":" + margin;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, QRCodeImage image) -> 2 * key.length() + image.bytes().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "qr");
+    }
+
     @Override
-    public String generateQRCode(String url, int width, int height) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(url, BarcodeFormat.QR_CODE, width, height);
+    public QRCodeImage render(String content, int size, Format format) {
+        String key = settingsKey + ":" + format + ":" + size + ":" + content;
+        QRCodeImage image = cache.getIfPresent(key);
+        if (image == null) {
+            image = await(submit(() -> draw(key, content, size, format)));
+            cache.put(key, image);
+        }
+        return image;
+    }
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+    private QRCodeImage draw(String key, String content, int size, Format format) {
+        byte[] bytes = format == Format.SVG
+                ? renderer.renderSvg(content, size)
+                : renderer.renderPng(content, size);
+        String etag = "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new QRCodeImage(bytes, format.contentType(), etag);
+    }
+
+    private Future<QRCodeImage> submit(Callable<QRCodeImage> task) {
+        try {
+            return qrExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("QR code rendering is busy, please retry");
+        }
+    }
 
-            byte[] bytes = outputStream.toByteArray();
-            return Base64.getEncoder().encodeToString(bytes);
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating QR code", e);
+    private static QRCodeImage await(Future<QRCodeImage> rendering) {
+        try {
+            return rendering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rendering.cancel(true);
+            throw new ServiceUnavailableException("QR code rendering was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("QR code rendering failed", e.getCause());
         }
     }
 }
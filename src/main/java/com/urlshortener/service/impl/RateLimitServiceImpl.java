@@ -1,29 +1,108 @@
 package com.urlshortener.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urlshortener.config.RateLimitProperties;
+import com.urlshortener.entity.User;
+import com.urlshortener.exception.RateLimitExceededException;
 import com.urlshortener.service.RateLimitService;
-import lombok.RequiredArgsConstructor;
+import com.urlshortener.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Token buckets per user and endpoint, sized by the user's plan. The authoritative bucket lives
+ * in Redis and is updated by one Lua script per check. A local bucket with the same limits runs
+ * in front of it: it is only charged for requests Redis allowed, so it never holds fewer tokens
+ * than the shared one, and an empty local bucket can reject without a round trip.
+ * If Redis is unreachable the check fails open.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class RateLimitServiceImpl implements RateLimitService {
 
-    private final StringRedisTemplate redisTemplate;
     private static final String KEY_PREFIX = "rate_limit:";
-    private static final int MAX_REQUESTS = 10;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final RedisScript<List<Long>> tokenBucketScript;
+    private final Cache<String, TokenBucket> localBuckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitServiceImpl(StringRedisTemplate redisTemplate,
+                                RateLimitProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tokenBucketScript = tokenBucketScript();
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
 
     @Override
-    public boolean checkRateLimit(String userId) {
-        String key = KEY_PREFIX + userId;
-        Long count = redisTemplate.opsForValue().increment(key);
+    public void checkRateLimit(User user, String endpoint) {
+        RateLimitProperties.Limit limit = properties.limitFor(user.getPlan(), endpoint);
+        if (limit == null) {
+            return;
+        }
+        String key = KEY_PREFIX + endpoint + ":" + user.getId();
+        // Sized at creation, so a plan change must start a new local bucket; Redis gets the limits per call
+        TokenBucket local = localBuckets.get(key + ":" + limit.getCapacity() + ":" + limit.getRefillPerMinute(),
+                k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute() / 60));
 
-        if (count != null && count == 1) {
-            redisTemplate.expire(key, 1, TimeUnit.MINUTES);
+        double available = local.available();
+        if (available < 1) {
+            meterRegistry.counter("ratelimit.rejected", "endpoint", endpoint, "source", "local").increment();
+            throw exceeded(limit, (long) available, TimeUnit.NANOSECONDS.toMillis(local.nanosUntil(1)));
         }
 
-        return count != null && count <= MAX_REQUESTS;
+        List<Long> result;
+        try {
+            result = redisTemplate.execute(tokenBucketScript, List.of(key),
+                    Long.toString(limit.getCapacity()),
+                    Double.toString(limit.getRefillPerMinute() / 60_000),
+                    "1");
+        } catch (RuntimeException e) {
+            log.warn("Rate limit check for {} failed, allowing request: {}", key, e.getMessage());
+            local.consume(1);
+            return;
+        }
+        if (result == null || result.size() < 3) {
+            local.consume(1);
+            return;
+        }
+        if (result.get(0) == 1) {
+            local.consume(1);
+            return;
+        }
+        meterRegistry.counter("ratelimit.rejected", "endpoint", endpoint, "source", "redis").increment();
+        throw exceeded(limit, result.get(1), result.get(2));
+    }
+
+    private static RateLimitExceededException exceeded(RateLimitProperties.Limit limit, long remaining,
+                                                       long retryAfterMillis) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
+        return new RateLimitExceededException(
+                "Rate limit exceeded. Try again in " + retryAfterSeconds + " seconds.",
+                limit.getCapacity(), remaining, retryAfterSeconds);
+    }
+
+    // Lua integers come back as Longs; a class literal cannot carry the element type
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> tokenBucketScript() {
+        return (RedisScript<List<Long>>) (RedisScript<?>) RedisScript.of(
+                new ClassPathResource("scripts/token_bucket.lua"), List.class);
     }
 }
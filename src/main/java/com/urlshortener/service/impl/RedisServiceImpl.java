@@ -1,33 +1,50 @@
 package com.urlshortener.service.impl;
 
+import com.urlshortener.dto.cache.CachedRedirect;
 import com.urlshortener.service.RedisService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class RedisServiceImpl implements RedisService {
 
-    private final StringRedisTemplate redisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
 
     // Key prefix to avoid collisions if any
     private static final String KEY_PREFIX = "link:";
 
     @Override
-    public void cacheUrl(String shortCode, String originalUrl) {
-        redisTemplate.opsForValue().set(KEY_PREFIX + shortCode, originalUrl, 1, TimeUnit.HOURS);
+    public void cacheRedirect(String shortCode, CachedRedirect redirect) {
+        binaryRedisTemplate.opsForValue().set(KEY_PREFIX + shortCode, redirect.encode(), redirect.remainingTtl());
     }
 
     @Override
-    public String getCachedUrl(String shortCode) {
-        return redisTemplate.opsForValue().get(KEY_PREFIX + shortCode);
+    public void cacheRedirects(Map<String, CachedRedirect> redirects) {
+        binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            redirects.forEach((shortCode, redirect) -> connection.stringCommands().set(
+                    (KEY_PREFIX + shortCode).getBytes(StandardCharsets.UTF_8),
+                    redirect.encode(),
+                    Expiration.from(redirect.remainingTtl()),
+                    RedisStringCommands.SetOption.upsert()));
+            return null;
+        });
+    }
+
+    @Override
+    public CachedRedirect getCachedRedirect(String shortCode) {
+        return CachedRedirect.decode(binaryRedisTemplate.opsForValue().get(KEY_PREFIX + shortCode));
     }
 
     @Override
     public void invalidateCache(String shortCode) {
-        redisTemplate.delete(KEY_PREFIX + shortCode);
+        binaryRedisTemplate.delete(KEY_PREFIX + shortCode);
     }
 }
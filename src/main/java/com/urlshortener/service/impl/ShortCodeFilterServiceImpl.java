@@ -0,0 +1,162 @@
+package com.urlshortener.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urlshortener.config.AsyncConfig;
+import com.urlshortener.config.RedisConfig;
+import com.urlshortener.repository.LinkRepository;
+import com.urlshortener.service.ShortCodeFilterService;
+import com.urlshortener.util.BloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over every short code and custom alias, so unknown codes are rejected before
+ * Redis or Postgres is touched. Until the first build completes every code is let through.
+ * Deleted codes stay in the filter until the next periodic rebuild; lookups for them fall
+ * through to the DB once and are then held in the short-lived negative cache.
+ */
+@Slf4j
+@Service
+public class ShortCodeFilterServiceImpl implements ShortCodeFilterService {
+
+    private final LinkRepository linkRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final Cache<String, Boolean> negativeCache;
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Filter currently being rebuilt; codes registered meanwhile go into both
+    private volatile BloomFilter building;
+
+    public ShortCodeFilterServiceImpl(LinkRepository linkRepository,
+                                      StringRedisTemplate redisTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${shortcode.filter.expected-insertions}") long expectedInsertions,
+                                      @Value("${shortcode.filter.false-positive-rate}") double falsePositiveRate,
+                                      @Value("${shortcode.filter.negative-cache-size}") long negativeCacheSize,
+                                      @Value("${shortcode.filter.negative-cache-ttl-seconds}") long negativeCacheTtl) {
+        this.linkRepository = linkRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeCacheTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, "links.negative");
+    }
+
+    @Override
+    public boolean mightExist(String shortCode) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        return current.mightContain(shortCode) && negativeCache.getIfPresent(shortCode) == null;
+    }
+
+    @Override
+    public void register(String shortCode) {
+        registerAll(List.of(shortCode));
+    }
+
+    @Override
+    public void registerAll(Collection<String> shortCodes) {
+        if (shortCodes.isEmpty()) {
+            return;
+        }
+        // Registering after commit guarantees a concurrent rebuild either sees the row or the put
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishRegistration(shortCodes);
+                }
+            });
+        } else {
+            publishRegistration(shortCodes);
+        }
+    }
+
+    private void publishRegistration(Collection<String> shortCodes) {
+        shortCodes.forEach(this::registerLocal);
+        // One message per batch; codes never contain newlines
+        redisTemplate.convertAndSend(RedisConfig.LINK_CREATED_CHANNEL, String.join("\n", shortCodes));
+    }
+
+    @Override
+    public void registerLocal(String shortCode) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(shortCode);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(shortCode);
+        }
+        negativeCache.invalidate(shortCode);
+    }
+
+    @Override
+    public void markMissing(String shortCode) {
+        negativeCache.put(shortCode, Boolean.TRUE);
+    }
+
+    @Async(AsyncConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${shortcode.filter.rebuild-interval-ms}",
+            initialDelayString = "${shortcode.filter.rebuild-interval-ms}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        // Size for at least twice the current population so growth does not erode the FP rate
+        long linkCount = linkRepository.count();
+        BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, linkCount * 2), falsePositiveRate);
+        building = next;
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<String> codes = linkRepository.streamAllShortCodes()) {
+                    codes.forEach(next::put);
+                }
+                try (Stream<String> aliases = linkRepository.streamAllCustomAliases()) {
+                    aliases.forEach(next::put);
+                }
+            });
+            filter = next;
+            log.info("Short code filter built: {} links, {} bits, {} hashes in {} ms",
+                    linkCount, next.bitSize(), next.hashCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Short code filter build failed, keeping previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+}
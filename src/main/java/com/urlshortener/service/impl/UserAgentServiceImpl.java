@@ -0,0 +1,34 @@
+package com.urlshortener.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urlshortener.service.UserAgentService;
+import com.urlshortener.util.UserAgentClassifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class UserAgentServiceImpl implements UserAgentService {
+
+    // Real traffic has few distinct UAs, so a small cache absorbs nearly every lookup
+    private final Cache<String, UserAgentClassifier.Result> cache;
+
+    public UserAgentServiceImpl(MeterRegistry meterRegistry,
+                                @Value("${useragent.cache-size}") long cacheSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "useragent");
+    }
+
+    @Override
+    public UserAgentClassifier.Result classify(String userAgent) {
+        if (userAgent == null) {
+            return UserAgentClassifier.UNKNOWN;
+        }
+        return cache.get(userAgent, UserAgentClassifier::classify);
+    }
+}
@@ -0,0 +1,103 @@
+package com.urlshortener.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Case-insensitive multi-pattern matcher over ASCII patterns (up to 64). The automaton is
+ * compiled into a full transition table, so {@link #match} is a single pass over the input
+ * with one array lookup per character and returns the matched patterns as a bit mask.
+ */
+public final class AhoCorasick {
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final long[] outputs;
+
+    public AhoCorasick(List<String> patterns) {
+        if (patterns.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most 64 patterns are supported");
+        }
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Long> output = new ArrayList<>();
+        gotoTable.add(newState());
+        output.add(0L);
+
+        for (int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for (char c : patterns.get(p).toCharArray()) {
+                int symbol = fold(c);
+                if (symbol == 0) {
+                    throw new IllegalArgumentException("Pattern must be ASCII: " + patterns.get(p));
+                }
+                if (gotoTable.get(state)[symbol] < 0) {
+                    gotoTable.get(state)[symbol] = gotoTable.size();
+                    gotoTable.add(newState());
+                    output.add(0L);
+                }
+                state = gotoTable.get(state)[symbol];
+            }
+            output.set(state, output.get(state) | (1L << p));
+        }
+
+        // Breadth-first: resolve failure links into direct transitions and merge outputs
+        int[] failure = new int[gotoTable.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int next = gotoTable.get(0)[symbol];
+            if (next < 0) {
+                gotoTable.get(0)[symbol] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            output.set(state, output.get(state) | output.get(failure[state]));
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int next = gotoTable.get(state)[symbol];
+                if (next < 0) {
+                    gotoTable.get(state)[symbol] = gotoTable.get(failure[state])[symbol];
+                } else {
+                    failure[next] = gotoTable.get(failure[state])[symbol];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = gotoTable.toArray(new int[0][]);
+        this.outputs = output.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Bit {@code i} of the result is set when pattern {@code i} occurs in the text.
+     */
+    public long match(CharSequence text) {
+        long matched = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state][fold(text.charAt(i))];
+            matched |= outputs[state];
+        }
+        return matched;
+    }
+
+    // Lower-cases ASCII letters; every non-ASCII char maps to 0, which no pattern contains
+    private static int fold(char c) {
+        if (c >= ALPHABET) {
+            return 0;
+        }
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
@@ -0,0 +1,475 @@
+package com.urlshortener.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Column-oriented, compressed file of archived clicks, read through a memory mapping.
+ *
+ * A link's clicks form one block, or several of at most {@link #MAX_BLOCK_ROWS} rows for busy
+ * links: the row count, the timestamps as epoch seconds (first absolute, then deltas) and one
+ * column of dictionary ids per dimension, all varints, the whole block deflated. Blocks are
+ * followed by the four dictionaries, an index of (linkId, offset, compressed length, raw length,
+ * rows) sorted by link id, and a fixed trailer: dictionaries offset:8, index offset:8, index
+ * entries:4, magic:4. Little-endian throughout.
+ */
+public final class ClickArchive {
+
+    private static final int MAGIC = 0x414B4C43; // "CLKA"
+    private static final int TRAILER_BYTES = 8 + 8 + 4 + 4;
+    private static final int INDEX_ENTRY_BYTES = 16 + 8 + 4 + 4 + 4;
+    private static final int DIMENSIONS = 4;
+    // Caps the columns a writer holds in memory at a few MB
+    static final int MAX_BLOCK_ROWS = 1 << 20;
+    private static final Comparator<UUID> LINK_ORDER = Comparator.naturalOrder();
+
+    private ClickArchive() {
+    }
+
+    public record Click(UUID linkId, LocalDateTime clickedAt, String country, String device,
+                        String browser, String referer) {
+    }
+
+    /**
+     * Click totals of one link: per day and per value of each dimension.
+     */
+    public record Summary(long clicks, Map<LocalDate, Long> daily, Map<String, Long> countries,
+                          Map<String, Long> devices, Map<String, Long> browsers, Map<String, Long> referers) {
+
+        public static final Summary EMPTY = new Summary(0, Map.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+        public Summary plus(Summary other) {
+            if (other.clicks == 0) {
+                return this;
+            }
+            if (clicks == 0) {
+                return other;
+            }
+            return new Summary(clicks + other.clicks, sum(daily, other.daily), sum(countries, other.countries),
+                    sum(devices, other.devices), sum(browsers, other.browsers), sum(referers, other.referers));
+        }
+
+        private static <K> Map<K, Long> sum(Map<K, Long> a, Map<K, Long> b) {
+            Map<K, Long> total = new HashMap<>(a);
+            b.forEach((key, count) -> total.merge(key, count, Long::sum));
+            return total;
+        }
+    }
+
+    /**
+     * Streams clicks into a new archive file. Clicks must arrive grouped by link and, within
+     * a link, in time order; links may come in any order.
+     */
+    public static final class Writer implements Closeable {
+
+        private final OutputStream out;
+        private final int maxBlockRows;
+        private final Deflater deflater = new Deflater();
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+        private final List<IndexEntry> index = new ArrayList<>();
+        private final Set<UUID> written = new HashSet<>();
+        // Columns of the block being built, encoded as clicks arrive
+        private final VarintBuffer timestamps = new VarintBuffer();
+        private final VarintBuffer[] columns = new VarintBuffer[DIMENSIONS];
+        private final VarintBuffer raw = new VarintBuffer();
+        private byte[] compressed = new byte[64 * 1024];
+        private UUID current;
+        private long previous;
+        private int blockRows;
+        private long offset;
+        private long rows;
+
+        public Writer(Path file) throws IOException {
+            this(file, MAX_BLOCK_ROWS);
+        }
+
+        Writer(Path file, int maxBlockRows) throws IOException {
+            this.out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.maxBlockRows = maxBlockRows;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                dictionaries.add(new LinkedHashMap<>());
+                columns[i] = new VarintBuffer();
+            }
+        }
+
+        public void add(Click click) throws IOException {
+            long seconds = click.clickedAt().toEpochSecond(ZoneOffset.UTC);
+            if (!click.linkId().equals(current)) {
+                flushBlock();
+                if (!written.add(click.linkId())) {
+                    throw new IllegalStateException("Clicks for link " + click.linkId() + " are not contiguous");
+                }
+                current = click.linkId();
+            } else if (seconds < previous) {
+                throw new IllegalStateException("Clicks for link " + click.linkId() + " are not in time order");
+            }
+            if (blockRows == 0) {
+                timestamps.putVarint(zigzag(seconds));
+            } else {
+                timestamps.putVarint(seconds - previous);
+            }
+            previous = seconds;
+            for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+                Map<String, Integer> dictionary = dictionaries.get(dimension);
+                String value = value(click, dimension);
+                Integer id = dictionary.get(value);
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionary.put(value, id);
+                }
+                columns[dimension].putVarint(id);
+            }
+            if (++blockRows == maxBlockRows) {
+                flushBlock();
+            }
+        }
+
+        public long rows() {
+            return rows + blockRows;
+        }
+
+        public int links() {
+            return written.size();
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockRows == 0) {
+                return;
+            }
+            raw.reset();
+            raw.putVarint(blockRows);
+            raw.put(timestamps);
+            for (VarintBuffer column : columns) {
+                raw.put(column);
+            }
+
+            deflater.reset();
+            deflater.setInput(raw.bytes, 0, raw.length);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            out.write(compressed, 0, length);
+            index.add(new IndexEntry(current, offset, length, raw.length, blockRows));
+            offset += length;
+            rows += blockRows;
+            blockRows = 0;
+            timestamps.reset();
+            for (VarintBuffer column : columns) {
+                column.reset();
+            }
+        }
+
+        /**
+         * Writes the dictionaries, index and trailer and closes the file.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBlock();
+                long dictionariesOffset = offset;
+                VarintBuffer tail = new VarintBuffer();
+                for (Map<String, Integer> dictionary : dictionaries) {
+                    tail.putVarint(dictionary.size());
+                    for (String value : dictionary.keySet()) {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        tail.putVarint(bytes.length);
+                        tail.put(bytes);
+                    }
+                }
+                long indexOffset = dictionariesOffset + tail.length;
+                // Stable, so a link's blocks stay together
+                index.sort(Comparator.comparing(IndexEntry::linkId, LINK_ORDER));
+                ByteBuffer footer = ByteBuffer.allocate(index.size() * INDEX_ENTRY_BYTES + TRAILER_BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                for (IndexEntry entry : index) {
+                    footer.putLong(entry.linkId().getMostSignificantBits())
+                            .putLong(entry.linkId().getLeastSignificantBits())
+                            .putLong(entry.offset())
+                            .putInt(entry.compressedLength())
+                            .putInt(entry.rawLength())
+                            .putInt(entry.rows());
+                }
+                footer.putLong(dictionariesOffset).putLong(indexOffset).putInt(index.size()).putInt(MAGIC);
+                out.write(tail.bytes, 0, tail.length);
+                out.write(footer.array());
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Read-only view of an archive file. Safe for concurrent use.
+     */
+    public static final class Reader {
+
+        private final MappedByteBuffer buffer;
+        private final String[][] dictionaries = new String[DIMENSIONS][];
+        private final int indexOffset;
+        private final int entries;
+
+        private Reader(MappedByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int size = view.capacity();
+            if (size < TRAILER_BYTES || view.getInt(size - 4) != MAGIC) {
+                throw new IOException("Not a click archive");
+            }
+            long dictionariesOffset = view.getLong(size - TRAILER_BYTES);
+            this.indexOffset = (int) view.getLong(size - TRAILER_BYTES + 8);
+            this.entries = view.getInt(size - 8);
+            if ((long) indexOffset + (long) entries * INDEX_ENTRY_BYTES != size - TRAILER_BYTES) {
+                throw new IOException("Click archive footer is inconsistent");
+            }
+            VarintReader dictionaryReader = new VarintReader(view.slice((int) dictionariesOffset,
+                    indexOffset - (int) dictionariesOffset));
+            for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+                String[] values = new String[(int) dictionaryReader.next()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = dictionaryReader.nextString();
+                }
+                dictionaries[dimension] = values;
+            }
+        }
+
+        public static Reader open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Click archive larger than 2 GB: " + file);
+                }
+                return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        public int blockCount() {
+            return entries;
+        }
+
+        public Summary summarize(UUID linkId) {
+            ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int entry = find(view, linkId);
+            if (entry < 0) {
+                return Summary.EMPTY;
+            }
+            // A busy link spans neighbouring entries
+            while (entry > 0 && linkAt(view, entry - 1).equals(linkId)) {
+                entry--;
+            }
+            Summary summary = Summary.EMPTY;
+            for (; entry < entries && linkAt(view, entry).equals(linkId); entry++) {
+                summary = summary.plus(readBlock(view, indexOffset + entry * INDEX_ENTRY_BYTES, linkId));
+            }
+            return summary;
+        }
+
+        private Summary readBlock(ByteBuffer view, int position, UUID linkId) {
+            long blockOffset = view.getLong(position + 16);
+            int compressedLength = view.getInt(position + 24);
+            int rawLength = view.getInt(position + 28);
+
+            byte[] block = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(view.slice((int) blockOffset, compressedLength));
+                int read = 0;
+                while (read < rawLength && !inflater.finished()) {
+                    read += inflater.inflate(block, read, rawLength - read);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt block for link " + linkId, e);
+            } finally {
+                inflater.end();
+            }
+            return decode(new VarintReader(ByteBuffer.wrap(block)));
+        }
+
+        private UUID linkAt(ByteBuffer view, int entry) {
+            int position = indexOffset + entry * INDEX_ENTRY_BYTES;
+            return new UUID(view.getLong(position), view.getLong(position + 8));
+        }
+
+        // Index of some entry of the link, or -1
+        private int find(ByteBuffer view, UUID linkId) {
+            int low = 0;
+            int high = entries - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = LINK_ORDER.compare(linkAt(view, mid), linkId);
+                if (order == 0) {
+                    return mid;
+                }
+                if (order < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return -1;
+        }
+
+        private Summary decode(VarintReader block) {
+            int rows = (int) block.next();
+            Map<LocalDate, Long> daily = new HashMap<>();
+            long seconds = 0;
+            long day = Long.MIN_VALUE;
+            long dayClicks = 0;
+            // Timestamps are sorted, so days come in runs
+            for (int i = 0; i < rows; i++) {
+                seconds = i == 0 ? unzigzag(block.next()) : seconds + block.next();
+                long epochDay = Math.floorDiv(seconds, 86_400);
+                if (epochDay != day) {
+                    if (dayClicks > 0) {
+                        daily.put(LocalDate.ofEpochDay(day), dayClicks);
+                    }
+                    day = epochDay;
+                    dayClicks = 0;
+                }
+                dayClicks++;
+            }
+            if (dayClicks > 0) {
+                daily.put(LocalDate.ofEpochDay(day), dayClicks);
+            }
+            List<Map<String, Long>> totals = new ArrayList<>(DIMENSIONS);
+            for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+                String[] dictionary = dictionaries[dimension];
+                Map<String, Long> byValue = new HashMap<>();
+                // Dense counters unless the dictionary dwarfs the link, as referers can
+                if (dictionary.length <= rows * 4L) {
+                    long[] counts = new long[dictionary.length];
+                    for (int i = 0; i < rows; i++) {
+                        counts[(int) block.next()]++;
+                    }
+                    for (int id = 0; id < counts.length; id++) {
+                        if (counts[id] > 0) {
+                            byValue.put(dictionary[id], counts[id]);
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < rows; i++) {
+                        byValue.merge(dictionary[(int) block.next()], 1L, Long::sum);
+                    }
+                }
+                totals.add(Collections.unmodifiableMap(byValue));
+            }
+            return new Summary(rows, daily, totals.get(0), totals.get(1), totals.get(2), totals.get(3));
+        }
+    }
+
+    private static String value(Click click, int dimension) {
+        String value = switch (dimension) {
+            case 0 -> click.country();
+            case 1 -> click.device();
+            case 2 -> click.browser();
+            default -> click.referer();
+        };
+        return value != null ? value : "";
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private record IndexEntry(UUID linkId, long offset, int compressedLength, int rawLength, int rows) {
+    }
+
+    private static final class VarintBuffer {
+        byte[] bytes = new byte[4096];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void put(byte[] value) {
+            put(value, value.length);
+        }
+
+        void put(VarintBuffer other) {
+            put(other.bytes, other.length);
+        }
+
+        private void put(byte[] value, int count) {
+            ensure(count);
+            System.arraycopy(value, 0, bytes, length, count);
+            length += count;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    private static final class VarintReader {
+        private final ByteBuffer buffer;
+
+        VarintReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long next() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String nextString() {
+            int length = (int) next();
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.urlshortener.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable IP range to location table with binary-search lookup.
+ *
+ * Loaded from a CSV file with one range per line, either {@code start_ip,end_ip,country[,city]}
+ * or {@code cidr,country[,city]}, IPv4 and IPv6 mixed (the DB-IP "lite" country/city layouts
+ * reduce to this). Ranges are kept in sorted primitive arrays per address family and locations
+ * are de-duplicated, so a multi-million range database stays compact on the heap.
+ */
+public final class GeoIpDatabase {
+
+    public record Location(String country, String city) {
+    }
+
+    // IPv4: sign-flipped so plain int comparison orders addresses
+    private final int[] v4Starts;
+    private final int[] v4Ends;
+    private final int[] v4Locations;
+
+    // IPv6: 128-bit addresses as (high, low) pairs, sign-flipped likewise
+    private final long[] v6StartHigh;
+    private final long[] v6StartLow;
+    private final long[] v6EndHigh;
+    private final long[] v6EndLow;
+    private final int[] v6Locations;
+
+    private final Location[] locations;
+
+    private GeoIpDatabase(Builder builder) {
+        int[] v4Order = sortedOrder(builder.v4Starts.size(), (a, b) ->
+                Integer.compare(builder.v4Starts.get(a), builder.v4Starts.get(b)));
+        v4Starts = new int[v4Order.length];
+        v4Ends = new int[v4Order.length];
+        v4Locations = new int[v4Order.length];
+        for (int i = 0; i < v4Order.length; i++) {
+            v4Starts[i] = builder.v4Starts.get(v4Order[i]);
+            v4Ends[i] = builder.v4Ends.get(v4Order[i]);
+            v4Locations[i] = builder.v4Locations.get(v4Order[i]);
+        }
+
+        int[] v6Order = sortedOrder(builder.v6Starts.size(), (a, b) ->
+                compare128(builder.v6Starts.get(a), builder.v6Starts.get(b)));
+        v6StartHigh = new long[v6Order.length];
+        v6StartLow = new long[v6Order.length];
+        v6EndHigh = new long[v6Order.length];
+        v6EndLow = new long[v6Order.length];
+        v6Locations = new int[v6Order.length];
+        for (int i = 0; i < v6Order.length; i++) {
+            long[] start = builder.v6Starts.get(v6Order[i]);
+            long[] end = builder.v6Ends.get(v6Order[i]);
+            v6StartHigh[i] = start[0];
+            v6StartLow[i] = start[1];
+            v6EndHigh[i] = end[0];
+            v6EndLow[i] = end[1];
+            v6Locations[i] = builder.v6Locations.get(v6Order[i]);
+        }
+
+        locations = builder.locations.toArray(new Location[0]);
+    }
+
+    public static GeoIpDatabase load(Path file) throws IOException {
+        Builder builder = new Builder();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    builder.add(splitCsv(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid GeoIP entry at " + file + ":" + lineNumber, e);
+                }
+            }
+        }
+        return new GeoIpDatabase(builder);
+    }
+
+    public int size() {
+        return v4Starts.length + v6StartHigh.length;
+    }
+
+    /**
+     * Returns null when the address is not a literal IP or not covered by any range.
+     */
+    public Location lookup(String ip) {
+        InetAddress address = parseLiteral(ip);
+        if (address instanceof Inet4Address) {
+            int key = toV4Key(address.getAddress());
+            int index = floor(key);
+            return index >= 0 && key <= v4Ends[index] ? locations[v4Locations[index]] : null;
+        }
+        if (address instanceof Inet6Address) {
+            long[] key = toV6Key(address.getAddress());
+            int index = floor(key[0], key[1]);
+            return index >= 0 && compare128(key[0], key[1], v6EndHigh[index], v6EndLow[index]) <= 0
+                    ? locations[v6Locations[index]] : null;
+        }
+        return null;
+    }
+
+    private int floor(int key) {
+        int index = Arrays.binarySearch(v4Starts, key);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int floor(long high, long low) {
+        int lo = 0;
+        int hi = v6StartHigh.length - 1;
+        int result = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare128(v6StartHigh[mid], v6StartLow[mid], high, low) <= 0) {
+                result = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private static int compare128(long[] a, long[] b) {
+        return compare128(a[0], a[1], b[0], b[1]);
+    }
+
+    private static int compare128(long aHigh, long aLow, long bHigh, long bLow) {
+        int cmp = Long.compare(aHigh, bHigh);
+        return cmp != 0 ? cmp : Long.compare(aLow, bLow);
+    }
+
+    private static int toV4Key(byte[] bytes) {
+        int value = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        return value ^ Integer.MIN_VALUE;
+    }
+
+    private static long[] toV6Key(byte[] bytes) {
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xFF);
+            low = (low << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new long[]{high ^ Long.MIN_VALUE, low ^ Long.MIN_VALUE};
+    }
+
+    // Only accepts IP literals so a malformed value can never trigger a DNS lookup: getByName
+    // parses anything with a colon as IPv6 and digits with dots as IPv4, and resolves the rest
+    static InetAddress parseLiteral(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        boolean ipv6 = ip.indexOf(':') >= 0;
+        if (!ipv6 && ip.indexOf('.') < 0) {
+            return null;
+        }
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            boolean allowed = (c >= '0' && c <= '9') || c == '.'
+                    || (ipv6 && (c == ':' || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')));
+            if (!allowed) {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static int[] sortedOrder(int size, Comparator<Integer> comparator) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, comparator);
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static final class Builder {
+        private final List<Integer> v4Starts = new ArrayList<>();
+        private final List<Integer> v4Ends = new ArrayList<>();
+        private final List<Integer> v4Locations = new ArrayList<>();
+        private final List<long[]> v6Starts = new ArrayList<>();
+        private final List<long[]> v6Ends = new ArrayList<>();
+        private final List<Integer> v6Locations = new ArrayList<>();
+        private final List<Location> locations = new ArrayList<>();
+        private final Map<Location, Integer> locationIds = new HashMap<>();
+
+        void add(List<String> fields) {
+            InetAddress start;
+            InetAddress end;
+            int next;
+            if (fields.get(0).contains("/")) {
+                InetAddress[] range = cidrRange(fields.get(0));
+                start = range[0];
+                end = range[1];
+                next = 1;
+            } else {
+                if (fields.size() < 3) {
+                    throw new IllegalArgumentException("Expected start_ip,end_ip,country[,city]");
+                }
+                start = require(fields.get(0));
+                end = require(fields.get(1));
+                next = 2;
+            }
+            if (fields.size() <= next) {
+                throw new IllegalArgumentException("Missing country");
+            }
+            String country = emptyToNull(fields.get(next));
+            String city = fields.size() > next + 1 ? emptyToNull(fields.get(next + 1)) : null;
+            int locationId = locationIds.computeIfAbsent(new Location(country, city), location -> {
+                locations.add(location);
+                return locations.size() - 1;
+            });
+
+            if (start instanceof Inet4Address && end instanceof Inet4Address) {
+                v4Starts.add(toV4Key(start.getAddress()));
+                v4Ends.add(toV4Key(end.getAddress()));
+                v4Locations.add(locationId);
+            } else if (start instanceof Inet6Address && end instanceof Inet6Address) {
+                v6Starts.add(toV6Key(start.getAddress()));
+                v6Ends.add(toV6Key(end.getAddress()));
+                v6Locations.add(locationId);
+            } else {
+                throw new IllegalArgumentException("Range mixes IPv4 and IPv6");
+            }
+        }
+
+        private static InetAddress[] cidrRange(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress network = require(cidr.substring(0, slash));
+            int prefix = Integer.parseInt(cidr.substring(slash + 1));
+            byte[] bytes = network.getAddress();
+            int bits = bytes.length * 8;
+            if (prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+            }
+            BigInteger mask = BigInteger.ONE.shiftLeft(bits - prefix).subtract(BigInteger.ONE);
+            BigInteger first = new BigInteger(1, bytes).andNot(mask);
+            BigInteger last = first.or(mask);
+            return new InetAddress[]{toAddress(first, bytes.length), toAddress(last, bytes.length)};
+        }
+
+        private static InetAddress toAddress(BigInteger value, int length) {
+            byte[] raw = value.toByteArray();
+            byte[] bytes = new byte[length];
+            int copy = Math.min(raw.length, length);
+            System.arraycopy(raw, raw.length - copy, bytes, length - copy, copy);
+            try {
+                return InetAddress.getByAddress(bytes);
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        private static InetAddress require(String ip) {
+            InetAddress address = parseLiteral(ip);
+            if (address == null) {
+                throw new IllegalArgumentException("Not an IP address: " + ip);
+            }
+            return address;
+        }
+
+        private static String emptyToNull(String value) {
+            return value == null || value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.urlshortener.util;
+
+/**
+ * Network prefix of a literal client address: the /24 for IPv4 and the /64 for IPv6, which is
+ * what a single client or small network usually controls. Never performs a DNS lookup.
+ */
+public final class IpSubnets {
+
+    private IpSubnets() {
+    }
+
+    /**
+     * Returns the prefix as a string key, or the input unchanged if it is not a recognisable literal.
+     */
+    public static String prefix(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return ip;
+        }
+        int zone = ip.indexOf('%');
+        String address = zone >= 0 ? ip.substring(0, zone) : ip;
+        if (address.indexOf(':') < 0) {
+            int lastDot = address.lastIndexOf('.');
+            return lastDot > 0 ? address.substring(0, lastDot) + ".0/24" : ip;
+        }
+        // IPv4-mapped or -compatible IPv6 (::ffff:1.2.3.4) counts as the IPv4 address
+        int lastColon = address.lastIndexOf(':');
+        if (address.indexOf('.', lastColon) >= 0) {
+            return prefix(address.substring(lastColon + 1));
+        }
+        int[] groups = expandV6(address);
+        if (groups == null) {
+            return ip;
+        }
+        return Integer.toHexString(groups[0]) + ':' + Integer.toHexString(groups[1]) + ':'
+                + Integer.toHexString(groups[2]) + ':' + Integer.toHexString(groups[3]) + "::/64";
+    }
+
+    private static int[] expandV6(String address) {
+        int gap = address.indexOf("::");
+        String[] head;
+        String[] tail;
+        if (gap >= 0) {
+            String before = address.substring(0, gap);
+            String after = address.substring(gap + 2);
+            head = before.isEmpty() ? new String[0] : before.split(":");
+            tail = after.isEmpty() ? new String[0] : after.split(":");
+            if (head.length + tail.length > 7) {
+                return null;
+            }
+        } else {
+            head = address.split(":");
+            tail = new String[0];
+            if (head.length != 8) {
+                return null;
+            }
+        }
+        int[] groups = new int[8];
+        try {
+            for (int i = 0; i < head.length; i++) {
+                groups[i] = parseGroup(head[i]);
+            }
+            for (int i = 0; i < tail.length; i++) {
+                groups[8 - tail.length + i] = parseGroup(tail[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return groups;
+    }
+
+    private static int parseGroup(String group) {
+        if (group.isEmpty() || group.length() > 4) {
+            throw new NumberFormatException(group);
+        }
+        return Integer.parseInt(group, 16);
+    }
+}
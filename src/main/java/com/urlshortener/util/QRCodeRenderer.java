@@ -0,0 +1,244 @@
+package com.urlshortener.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Renders QR codes straight from ZXing's module matrix, without {@code BitMatrix} scaling,
+ * {@code BufferedImage} or ImageIO.
+ *
+ * SVG output is one path with a run per horizontal stretch of dark modules. PNG output is a
+ * 1-bit indexed-colour image whose rows are packed once per module row and repeated for the
+ * scale; deflate state and scratch buffers come from a small pool (not thread-locals, so
+ * virtual threads do not each allocate their own).
+ *
+ * Placement matches {@code QRCodeWriter}: the code is scaled by the largest whole factor that
+ * fits the requested size and centred, with {@code margin} quiet-zone modules on each side.
+ */
+public final class QRCodeRenderer {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    // Index 0 white, index 1 black
+    private static final byte[] PALETTE = {(byte) 0xff, (byte) 0xff, (byte) 0xff, 0, 0, 0};
+    private static final int POOL_SIZE = 16;
+
+    private final ErrorCorrectionLevel errorCorrection;
+    private final int margin;
+    private final BlockingQueue<Workspace> workspaces = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public QRCodeRenderer(ErrorCorrectionLevel errorCorrection, int margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException("Margin must not be negative");
+        }
+        this.errorCorrection = errorCorrection;
+        this.margin = margin;
+    }
+
+    public byte[] renderSvg(String content, int size) {
+        byte[][] modules = encode(content);
+        int count = modules.length;
+        int total = count + 2 * margin;
+        StringBuilder svg = new StringBuilder(256 + count * count);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+                .append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(total).append(' ').append(total)
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+                .append("<path d=\"");
+        for (int y = 0; y < count; y++) {
+            byte[] row = modules[y];
+            int x = 0;
+            while (x < count) {
+                if (row[x] != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < count && row[x] == 1) {
+                    x++;
+                }
+                int run = x - start;
+                svg.append('M').append(start + margin).append(' ').append(y + margin)
+                        .append('h').append(run).append("v1h-").append(run).append('z');
+            }
+        }
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public byte[] renderPng(String content, int size) {
+        byte[][] modules = encode(content);
+        int count = modules.length;
+        int total = count + 2 * margin;
+        int dimension = Math.max(size, total);
+        int scale = dimension / total;
+        int offset = (dimension - count * scale) / 2;
+
+        Workspace workspace = acquire();
+        try {
+            int rowBytes = (dimension + 7) / 8;
+            // Filter type byte + packed pixels
+            int stride = rowBytes + 1;
+            byte[] raw = workspace.raw(stride * dimension);
+            Arrays.fill(raw, 0, stride * dimension, (byte) 0);
+
+            byte[] packed = workspace.row(stride);
+            for (int y = 0; y < count; y++) {
+                Arrays.fill(packed, 0, stride, (byte) 0);
+                byte[] row = modules[y];
+                for (int x = 0; x < count; x++) {
+                    if (row[x] == 1) {
+                        int px = offset + x * scale;
+                        for (int i = 0; i < scale; i++, px++) {
+                            packed[1 + (px >> 3)] |= (byte) (0x80 >>> (px & 7));
+                        }
+                    }
+                }
+                int firstLine = offset + y * scale;
+                for (int i = 0; i < scale; i++) {
+                    System.arraycopy(packed, 0, raw, (firstLine + i) * stride, stride);
+                }
+            }
+
+            Deflater deflater = workspace.deflater;
+            deflater.reset();
+            deflater.setInput(raw, 0, stride * dimension);
+            deflater.finish();
+            byte[] compressed = workspace.compressed(stride * dimension / 4 + 64);
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = workspace.growCompressed();
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            PngWriter png = new PngWriter(8 + (12 + 13) + (12 + PALETTE.length) + (12 + compressedLength) + 12,
+                    workspace.crc);
+            png.bytes(PNG_SIGNATURE, PNG_SIGNATURE.length);
+            png.chunk("IHDR", ihdr(dimension), 13);
+            png.chunk("PLTE", PALETTE, PALETTE.length);
+            png.chunk("IDAT", compressed, compressedLength);
+            png.chunk("IEND", compressed, 0);
+            return png.buffer;
+        } finally {
+            release(workspace);
+        }
+    }
+
+    private byte[][] encode(String content) {
+        try {
+            QRCode code = Encoder.encode(content, errorCorrection);
+            return code.getMatrix().getArray();
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Cannot encode QR code content", e);
+        }
+    }
+
+    private static byte[] ihdr(int dimension) {
+        byte[] header = new byte[13];
+        putInt(header, 0, dimension);
+        putInt(header, 4, dimension);
+        header[8] = 1; // bit depth
+        header[9] = 3; // indexed colour
+        // compression, filter and interlace methods are all 0
+        return header;
+    }
+
+    private static void putInt(byte[] target, int position, int value) {
+        target[position] = (byte) (value >>> 24);
+        target[position + 1] = (byte) (value >>> 16);
+        target[position + 2] = (byte) (value >>> 8);
+        target[position + 3] = (byte) value;
+    }
+
+    private Workspace acquire() {
+        Workspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new Workspace();
+    }
+
+    private void release(Workspace workspace) {
+        // Dropped when the pool is full; the Deflater's native memory is freed with it
+        if (!workspaces.offer(workspace)) {
+            workspace.deflater.end();
+        }
+    }
+
+    /**
+     * Exactly-sized output buffer with PNG chunk framing.
+     */
+    private static final class PngWriter {
+        private final byte[] buffer;
+        private final CRC32 crc;
+        private int position;
+
+        PngWriter(int length, CRC32 crc) {
+            this.buffer = new byte[length];
+            this.crc = crc;
+        }
+
+        void bytes(byte[] source, int length) {
+            System.arraycopy(source, 0, buffer, position, length);
+            position += length;
+        }
+
+        void chunk(String type, byte[] data, int length) {
+            putInt(buffer, position, length);
+            position += 4;
+            int typeStart = position;
+            for (int i = 0; i < 4; i++) {
+                buffer[position++] = (byte) type.charAt(i);
+            }
+            bytes(data, length);
+            crc.reset();
+            crc.update(buffer, typeStart, 4 + length);
+            putInt(buffer, position, (int) crc.getValue());
+            position += 4;
+        }
+    }
+
+    /**
+     * Reusable per-render state; buffers grow to the largest image rendered and stay that size.
+     */
+    private static final class Workspace {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        byte[] row(int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] compressed(int length) {
+            if (compressed.length < length) {
+                compressed = new byte[length];
+            }
+            return compressed;
+        }
+
+        byte[] growCompressed() {
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            return compressed;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.urlshortener.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of byte records in fixed-size, memory-mapped segment files. Appends are
+ * serialised; reads run concurrently and only ever see fully written records. An append is in
+ * the page cache once it returns, so it survives a process crash; surviving a power loss needs
+ * {@link #force()} or {@link Fsync#ALWAYS}.
+ *
+ * Record layout: length:4, crc32c:4, payload. A length of -1 marks the end of a sealed segment,
+ * 0 unwritten space. On open the tail of the newest segment is checked record by record and
+ * everything from the first torn or corrupt record on is discarded.
+ */
+public final class SegmentLog implements Closeable {
+
+    public enum Fsync {
+        // Force each record to disk before append returns
+        ALWAYS,
+        // Force when the caller asks, e.g. on a timer
+        INTERVAL,
+        // Leave write-back to the OS
+        NEVER
+    }
+
+    /**
+     * Location just past a record. Positions order like the log.
+     */
+    public record Position(long segment, int offset) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    public record Batch(List<byte[]> records, Position next, int corrupt) {
+    }
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{20})\\.log");
+    private static final int HEADER_BYTES = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final int ZERO_CHUNK_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Fsync fsync;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile Segment active;
+
+    private SegmentLog(Path directory, int segmentBytes, Fsync fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    public static SegmentLog open(Path directory, int segmentBytes, Fsync fsync) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Segments must be at least 4 KB");
+        }
+        Files.createDirectories(directory);
+        SegmentLog log = new SegmentLog(directory, segmentBytes, fsync);
+        log.recover();
+        return log;
+    }
+
+    private void recover() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        ids.sort(null);
+        for (long id : ids) {
+            Segment segment = map(id, false);
+            segment.end = scan(segment.buffer);
+            segment.sealed = true;
+            segments.put(id, segment);
+        }
+        if (segments.isEmpty()) {
+            active = map(0, true);
+            segments.put(0L, active);
+            return;
+        }
+        active = segments.lastEntry().getValue();
+        active.sealed = false;
+        // Anything past the last good record is a torn write; clear it so later scans stop there
+        byte[] zeros = new byte[ZERO_CHUNK_BYTES];
+        for (int i = active.end; i < segmentBytes; i += ZERO_CHUNK_BYTES) {
+            active.buffer.put(i, zeros, 0, Math.min(ZERO_CHUNK_BYTES, segmentBytes - i));
+        }
+    }
+
+    private int scan(ByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentBytes) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > segmentBytes - offset - HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            if (checksum(payload) != buffer.getInt(offset + 4)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends one record and returns the position just past it.
+     */
+    public Position append(byte[] record) throws IOException {
+        int size = HEADER_BYTES + record.length;
+        // Room is always left for the end-of-segment marker
+        if (size > segmentBytes - 4) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit a segment");
+        }
+        appendLock.lock();
+        try {
+            Segment segment = active;
+            int offset = segment.end;
+            if (offset + size > segmentBytes - 4) {
+                segment = roll();
+                offset = 0;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.putInt(offset + 4, checksum(record));
+            buffer.put(offset + HEADER_BYTES, record);
+            // Length last: a record is not there for recovery until it is complete
+            buffer.putInt(offset, record.length);
+            if (fsync == Fsync.ALWAYS) {
+                buffer.force(offset, size);
+            }
+            // Volatile write publishes the record to readers
+            segment.end = offset + size;
+            return new Position(segment.id, segment.end);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment roll() throws IOException {
+        Segment full = active;
+        full.buffer.putInt(full.end, END_OF_SEGMENT);
+        if (fsync != Fsync.NEVER) {
+            full.buffer.force();
+        }
+        Segment next = map(full.id + 1, true);
+        segments.put(next.id, next);
+        active = next;
+        full.sealed = true;
+        return next;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code from}, crossing into later
+     * segments as needed. Positions in segments that were truncated away resume at the oldest
+     * segment still present. Records failing their checksum are skipped and counted.
+     */
+    public Batch read(Position from, int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        int corrupt = 0;
+        Position position = from;
+        while (records.size() < maxRecords) {
+            Map.Entry<Long, Segment> entry = segments.ceilingEntry(position.segment());
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            if (segment.id != position.segment()) {
+                position = new Position(segment.id, 0);
+            }
+            // Read sealed before end: once sealed, end no longer moves
+            boolean sealed = segment.sealed;
+            int end = segment.end;
+            if (position.offset() >= end) {
+                if (!sealed) {
+                    break;
+                }
+                position = new Position(segment.id + 1, 0);
+                continue;
+            }
+            ByteBuffer buffer = segment.buffer.duplicate();
+            int length = buffer.getInt(position.offset());
+            byte[] payload = new byte[length];
+            buffer.get(position.offset() + HEADER_BYTES, payload);
+            if (checksum(payload) == buffer.getInt(position.offset() + 4)) {
+                records.add(payload);
+            } else {
+                corrupt++;
+            }
+            position = new Position(segment.id, position.offset() + HEADER_BYTES + length);
+        }
+        return new Batch(records, position, corrupt);
+    }
+
+    /**
+     * Position of the first record still in the log.
+     */
+    public Position start() {
+        return new Position(segments.firstKey(), 0);
+    }
+
+    public Position end() {
+        Segment segment = active;
+        return new Position(segment.id, segment.end);
+    }
+
+    /**
+     * Deletes whole segments that lie entirely before {@code position}. Returns the bytes freed.
+     */
+    public long truncateBefore(Position position) throws IOException {
+        long freed = 0;
+        for (Map.Entry<Long, Segment> entry : segments.headMap(position.segment()).entrySet()) {
+            // The mapping stays valid for readers still holding it until it is collected
+            segments.remove(entry.getKey());
+            Files.deleteIfExists(entry.getValue().path);
+            freed += segmentBytes;
+        }
+        return freed;
+    }
+
+    /**
+     * Flushes appended records of the active segment to the storage device.
+     */
+    public void force() {
+        Segment segment = active;
+        int end = segment.end;
+        if (end > 0) {
+            segment.buffer.force(0, end);
+        }
+    }
+
+    public long sizeBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (fsync != Fsync.NEVER) {
+                force();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment map(long id, boolean create) throws IOException {
+        Path path = directory.resolve(String.format("%020d.log", id));
+        StandardOpenOption[] options = create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            // Mapping past the end grows the file to its full segment size
+            return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+        return (int) checksum.getValue();
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final MappedByteBuffer buffer;
+        volatile int end;
+        volatile boolean sealed;
+
+        Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.urlshortener.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Bijective mapping between numeric IDs and base62 short codes.
+ *
+ * IDs fill the {@code minLength} keyspace first, then spill into the next length, and so on up to
+ * {@code maxLength}. Within each length the ID is permuted over {@code [0, 62^len)} by a keyed
+ * Feistel network: a balanced network on the smallest even bit width covering the keyspace,
+ * with SipHash-2-4 as round function, and cycle-walking to stay inside it. Without the secret,
+ * issued codes say nothing about the codes before or after them.
+ */
+public final class ShortCodeCodec {
+
+    public static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int BASE = ALPHABET.length();
+    private static final int ROUNDS = 6;
+
+    private final int minLength;
+    private final int maxLength;
+    // firstId[len - minLength] is the first ID encoded with that length
+    private final long[] firstId;
+    private final long[] size;
+    // Bits per Feistel half, per length
+    private final int[] halfBits;
+    // SipHash key, null for sequential codes
+    private final long[] key;
+
+    private ShortCodeCodec(int minLength, int maxLength, long[] key) {
+        if (minLength < 1 || maxLength < minLength || maxLength > 10) {
+            throw new IllegalArgumentException("Code length must be within 1..10");
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.key = key;
+        int lengths = maxLength - minLength + 1;
+        this.firstId = new long[lengths + 1];
+        this.size = new long[lengths];
+        this.halfBits = new int[lengths];
+        for (int i = 0; i < lengths; i++) {
+            size[i] = pow(minLength + i);
+            firstId[i + 1] = firstId[i] + size[i];
+            int bits = 64 - Long.numberOfLeadingZeros(size[i] - 1);
+            halfBits[i] = (bits + 1) / 2;
+        }
+    }
+
+    /**
+     * Sequential codes, no permutation.
+     */
+    public static ShortCodeCodec sequential(int minLength, int maxLength) {
+        return new ShortCodeCodec(minLength, maxLength, null);
+    }
+
+    /**
+     * Codes permuted by a key derived from {@code secret}.
+     */
+    public static ShortCodeCodec permuted(int minLength, int maxLength, String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new ShortCodeCodec(minLength, maxLength, new long[]{buffer.getLong(), buffer.getLong()});
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String encode(long id) {
+        int index = lengthIndex(id);
+        if (index < 0) {
+            throw new IllegalStateException("Short code keyspace exhausted at id " + id);
+        }
+        long local = permute(index, id - firstId[index]);
+        char[] chars = new char[minLength + index];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (local % BASE));
+            local /= BASE;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the ID for a code produced by {@link #encode}, or -1 if the code is outside this codec's range.
+     */
+    public long decode(String code) {
+        int index = code.length() - minLength;
+        if (index < 0 || code.length() > maxLength) {
+            return -1;
+        }
+        long local = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = ALPHABET.indexOf(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            local = local * BASE + digit;
+        }
+        return firstId[index] + unpermute(index, local);
+    }
+
+    /**
+     * Length of the code {@code id} encodes to.
+     */
+    public int length(long id) {
+        int index = lengthIndex(id);
+        return index < 0 ? -1 : minLength + index;
+    }
+
+    /**
+     * Fraction of the keyspace for {@code length(id)} that IDs below {@code id} have used.
+     */
+    public double usage(long id) {
+        int index = lengthIndex(id);
+        if (index < 0) {
+            return 1.0;
+        }
+        return (double) (id - firstId[index]) / (firstId[index + 1] - firstId[index]);
+    }
+
+    // Cycle-walking: re-apply the network until the value falls back into the keyspace
+    private long permute(int index, long value) {
+        if (key == null) {
+            return value;
+        }
+        do {
+            value = feistel(index, value, true);
+        } while (value >= size[index]);
+        return value;
+    }
+
+    private long unpermute(int index, long value) {
+        if (key == null) {
+            return value;
+        }
+        do {
+            value = feistel(index, value, false);
+        } while (value >= size[index]);
+        return value;
+    }
+
+    private long feistel(int index, long value, boolean forward) {
+        int bits = halfBits[index];
+        long mask = (1L << bits) - 1;
+        long left = value >>> bits;
+        long right = value & mask;
+        for (int i = 0; i < ROUNDS; i++) {
+            int round = forward ? i : ROUNDS - 1 - i;
+            if (forward) {
+                long next = left ^ (roundFunction(index, round, right) & mask);
+                left = right;
+                right = next;
+            } else {
+                long previous = right ^ (roundFunction(index, round, left) & mask);
+                right = left;
+                left = previous;
+            }
+        }
+        return (left << bits) | right;
+    }
+
+    // Halves are at most 30 bits, leaving room for the round and length in the message
+    private long roundFunction(int index, int round, long half) {
+        return sipHash24(key[0], key[1], ((long) index << 40) | ((long) round << 32) | half);
+    }
+
+    /**
+     * SipHash-2-4 of a single 8-byte little-endian message.
+     */
+    static long sipHash24(long k0, long k1, long message) {
+        long[] v = {
+                0x736f6d6570736575L ^ k0,
+                0x646f72616e646f6dL ^ k1,
+                0x6c7967656e657261L ^ k0,
+                0x7465646279746573L ^ k1
+        };
+        compress(v, message, 2);
+        // Final block: no tail bytes, length 8 in the top byte
+        compress(v, 8L << 56, 2);
+        v[2] ^= 0xff;
+        for (int i = 0; i < 4; i++) {
+            sipRound(v);
+        }
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void compress(long[] v, long block, int rounds) {
+        v[3] ^= block;
+        for (int i = 0; i < rounds; i++) {
+            sipRound(v);
+        }
+        v[0] ^= block;
+    }
+
+    private static void sipRound(long[] v) {
+        v[0] += v[1];
+        v[1] = Long.rotateLeft(v[1], 13);
+        v[1] ^= v[0];
+        v[0] = Long.rotateLeft(v[0], 32);
+        v[2] += v[3];
+        v[3] = Long.rotateLeft(v[3], 16);
+        v[3] ^= v[2];
+        v[0] += v[3];
+        v[3] = Long.rotateLeft(v[3], 21);
+        v[3] ^= v[0];
+        v[2] += v[1];
+        v[1] = Long.rotateLeft(v[1], 17);
+        v[1] ^= v[2];
+        v[2] = Long.rotateLeft(v[2], 32);
+    }
+
+    private int lengthIndex(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+        for (int i = 0; i < firstId.length - 1; i++) {
+            if (id < firstId[i + 1]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long pow(int length) {
+        long size = 1;
+        for (int i = 0; i < length; i++) {
+            size *= BASE;
+        }
+        return size;
+    }
+}
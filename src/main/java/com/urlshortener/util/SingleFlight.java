@@ -0,0 +1,63 @@
+package com.urlshortener.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, everyone
+ * arriving while it runs waits for and shares its result (or exception).
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+        return run(key, call, loader);
+    }
+
+    /**
+     * Runs the loader only if no load for the key is in flight; returns null otherwise
+     * without waiting.
+     */
+    public V executeIfIdle(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, call) != null) {
+            return null;
+        }
+        return run(key, call, loader);
+    }
+
+    private V run(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.urlshortener.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over a sliding window, in fixed memory however many keys
+ * are seen. The window is split into {@code buckets} slices, each a count-min sketch of
+ * {@code depth} rows by {@code width} counters; a slice is cleared when its time comes round
+ * again. Estimates never undercount (except for increments racing a slice reset) and overcount
+ * by at most about {@code e / width} of the window's total events per row, with high probability.
+ */
+public final class SlidingCountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clockMillis;
+    // counters[bucket] holds depth rows of width counters
+    private final AtomicIntegerArray[] counters;
+    // Time slice (now / bucketMillis) each bucket currently holds
+    private final AtomicLongArray epochs;
+
+    public SlidingCountMinSketch(int depth, int width, Duration window, int buckets, LongSupplier clockMillis) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Depth must be positive and width a power of two");
+        }
+        if (buckets < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Window must cover at least one millisecond per bucket");
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.buckets = buckets;
+        this.bucketMillis = window.toMillis() / buckets;
+        this.clockMillis = clockMillis;
+        this.counters = new AtomicIntegerArray[buckets];
+        this.epochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            counters[i] = new AtomicIntegerArray(depth * width);
+            epochs.set(i, -1);
+        }
+    }
+
+    /**
+     * Counts one event for {@code key} and returns the estimated count in the window, including it.
+     */
+    public long add(String key) {
+        long hash = BloomFilter.hash(key);
+        long epoch = clockMillis.getAsLong() / bucketMillis;
+        AtomicIntegerArray current = slice(epoch);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            current.incrementAndGet(row * (mask + 1) + ((h1 + row * h2) & mask));
+        }
+        return estimate(hash, epoch);
+    }
+
+    public long estimate(String key) {
+        return estimate(BloomFilter.hash(key), clockMillis.getAsLong() / bucketMillis);
+    }
+
+    /**
+     * Bytes held by the counters, independent of the number of keys.
+     */
+    public long memoryBytes() {
+        return (long) buckets * depth * (mask + 1) * Integer.BYTES + (long) buckets * Long.BYTES;
+    }
+
+    private long estimate(long hash, long epoch) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long total = 0;
+        for (int b = 0; b < buckets; b++) {
+            long sliceEpoch = epochs.get(b);
+            if (sliceEpoch <= epoch - buckets || sliceEpoch > epoch) {
+                continue;
+            }
+            AtomicIntegerArray slice = counters[b];
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, slice.get(row * (mask + 1) + ((h1 + row * h2) & mask)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    private AtomicIntegerArray slice(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) buckets);
+        long held = epochs.get(index);
+        if (held != epoch && held < epoch && epochs.compareAndSet(index, held, epoch)) {
+            AtomicIntegerArray slice = counters[index];
+            for (int i = 0; i < slice.length(); i++) {
+                slice.set(i, 0);
+            }
+        }
+        return counters[index];
+    }
+}
@@ -0,0 +1,60 @@
+package com.urlshortener.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process token bucket. {@link #available()} and {@link #consume(double)} are separate so a
+ * caller can check locally, ask an authoritative limiter, and only then spend the token.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double tokensPerSecond) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and rate must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public double available() {
+        lock.lock();
+        try {
+            refill();
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void consume(double cost) {
+        lock.lock();
+        try {
+            refill();
+            tokens = Math.max(0, tokens - cost);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nanoseconds until {@code cost} tokens are available, 0 if they already are.
+     */
+    public long nanosUntil(double cost) {
+        double missing = cost - available();
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,120 @@
+package com.urlshortener.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classifies a User-Agent into device type, browser, OS and bot in one Aho-Corasick pass.
+ * Tokens are matched anywhere in the string; the precedence of the checks below resolves
+ * UAs that carry several (Edge and Chrome UAs both contain "safari/", iPad UAs contain
+ * "mac os x", Android UAs contain "linux").
+ */
+public final class UserAgentClassifier {
+
+    public record Result(String deviceType, String browser, String os, boolean bot) {
+    }
+
+    public static final Result UNKNOWN = new Result("UNKNOWN", "UNKNOWN", "UNKNOWN", false);
+
+    private static final List<String> TOKENS = new ArrayList<>();
+
+    private static final long BOT = tokens("bot", "crawler", "spider", "slurp", "crawl", "headless",
+            "facebookexternalhit", "curl/", "wget/", "python-requests", "python-urllib", "go-http-client",
+            "okhttp", "apache-httpclient", "java/", "postman");
+
+    private static final long EDGE = tokens("edg/", "edge/", "edga/", "edgios/");
+    private static final long OPERA = tokens("opr/", "opera");
+    private static final long SAMSUNG = tokens("samsungbrowser");
+    private static final long FIREFOX = tokens("firefox/", "fxios/");
+    private static final long CHROME = tokens("chrome/", "crios/", "chromium/");
+    private static final long SAFARI = tokens("safari/");
+    private static final long IE = tokens("msie ", "trident/");
+
+    private static final long IOS = tokens("iphone", "ipad", "ipod");
+    private static final long ANDROID = tokens("android");
+    private static final long WINDOWS = tokens("windows");
+    private static final long CHROME_OS = tokens("cros ");
+    private static final long MAC = tokens("macintosh", "mac os x");
+    private static final long LINUX = tokens("linux", "x11");
+
+    private static final long TABLET = tokens("ipad", "tablet", "kindle", "silk/", "playbook");
+    private static final long MOBILE = tokens("mobile", "iphone", "ipod", "windows phone");
+
+    private static final AhoCorasick MATCHER = new AhoCorasick(TOKENS);
+
+    private UserAgentClassifier() {
+    }
+
+    public static Result classify(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UNKNOWN;
+        }
+        long m = MATCHER.match(userAgent);
+        boolean bot = any(m, BOT);
+        return new Result(deviceType(m, bot), browser(m), os(m), bot);
+    }
+
+    private static String deviceType(long m, boolean bot) {
+        if (bot)
+            return "BOT";
+        if (any(m, TABLET))
+            return "TABLET";
+        if (any(m, MOBILE))
+            return "MOBILE";
+        if (any(m, ANDROID))
+            return "TABLET"; // Android without "Mobile" is a tablet by Google's UA convention
+        return "DESKTOP";
+    }
+
+    private static String browser(long m) {
+        if (any(m, EDGE))
+            return "Edge";
+        if (any(m, OPERA))
+            return "Opera";
+        if (any(m, SAMSUNG))
+            return "Samsung Internet";
+        if (any(m, FIREFOX))
+            return "Firefox";
+        if (any(m, CHROME))
+            return "Chrome";
+        if (any(m, SAFARI))
+            return "Safari";
+        if (any(m, IE))
+            return "Internet Explorer";
+        return "Other";
+    }
+
+    private static String os(long m) {
+        if (any(m, IOS))
+            return "iOS";
+        if (any(m, ANDROID))
+            return "Android";
+        if (any(m, WINDOWS))
+            return "Windows";
+        if (any(m, CHROME_OS))
+            return "ChromeOS";
+        if (any(m, MAC))
+            return "macOS";
+        if (any(m, LINUX))
+            return "Linux";
+        return "Other";
+    }
+
+    private static boolean any(long matched, long mask) {
+        return (matched & mask) != 0;
+    }
+
+    // Registers the tokens (re-using ids for repeats) and returns their combined bit mask
+    private static long tokens(String... tokens) {
+        long mask = 0;
+        for (String token : tokens) {
+            int id = TOKENS.indexOf(token);
+            if (id < 0) {
+                TOKENS.add(token);
+                id = TOKENS.size() - 1;
+            }
+            mask |= 1L << id;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,36 @@
+-- Token bucket, evaluated atomically.
+-- KEYS[1]  bucket hash (tokens, ts)
+-- ARGV[1]  capacity
+-- ARGV[2]  refill rate in tokens per millisecond
+-- ARGV[3]  cost of this request
+-- Returns {allowed (0/1), whole tokens left, milliseconds until the request would fit}
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local cost = tonumber(ARGV[3])
+
+-- Server clock, so nodes with skewed clocks share one timeline
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+
+local allowed = 0
+local retry = 0
+if tokens >= cost then
+    tokens = tokens - cost
+    allowed = 1
+else
+    retry = math.ceil((cost - tokens) / rate)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+-- Idle buckets are full again after capacity / rate; drop them then
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000)
+return {allowed, math.floor(tokens), retry}
@@ -0,0 +1,62 @@
+package com.urlshortener.dto.cache;
+
+import com.urlshortener.entity.Link;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedRedirectTest {
+
+    @Test
+    void roundTripsThroughBinaryEncoding() {
+        CachedRedirect redirect = new CachedRedirect(UUID.randomUUID(), "https://example.com/ünïcode?q=1",
+                true, LocalDateTime.of(2030, 1, 2, 3, 4, 5), true, 302, System.currentTimeMillis());
+
+        assertEquals(redirect, CachedRedirect.decode(redirect.encode()));
+    }
+
+    @Test
+    void roundTripsWithoutExpiry() {
+        CachedRedirect redirect = new CachedRedirect(UUID.randomUUID(), "https://example.com", false, null,
+                false, 301, 0L);
+
+        assertEquals(redirect, CachedRedirect.decode(redirect.encode()));
+    }
+
+    @Test
+    void treatsLegacyStringValuesAsMiss() {
+        assertNull(CachedRedirect.decode("https://example.com/some/legacy/value".getBytes()));
+    }
+
+    @Test
+    void clampsCacheDeadlineToLinkExpiry() {
+        Link link = Link.builder()
+                .id(UUID.randomUUID())
+                .originalUrl("https://example.com")
+                .isActive(true)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+
+        CachedRedirect redirect = CachedRedirect.from(link, Duration.ofHours(1));
+
+        assertTrue(redirect.remainingTtl().compareTo(Duration.ofMinutes(6)) < 0);
+    }
+
+    @Test
+    void refreshesEarlyOnlyNearDeadline() {
+        CachedRedirect fresh = new CachedRedirect(UUID.randomUUID(), "https://example.com", true, null, false, 301,
+                System.currentTimeMillis() + Duration.ofHours(1).toMillis());
+        CachedRedirect stale = new CachedRedirect(UUID.randomUUID(), "https://example.com", true, null, false, 301,
+                System.currentTimeMillis() - 1);
+
+        assertFalse(fresh.shouldRefreshEarly(10, 1.0));
+        assertTrue(stale.shouldRefreshEarly(10, 1.0));
+    }
+}
@@ -0,0 +1,38 @@
+package com.urlshortener.dto.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClickEventTest {
+
+    @Test
+    void roundTripsThroughBinaryEncoding() {
+        ClickEvent event = new ClickEvent(UUID.randomUUID(), LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123_456_000),
+                "2001:db8::1", "Mozilla/5.0 (Ünïcode)", "https://example.com/page");
+
+        assertEquals(event, ClickEvent.decode(event.encode()));
+    }
+
+    @Test
+    void keepsNullHeaders() {
+        ClickEvent event = new ClickEvent(UUID.randomUUID(), LocalDateTime.of(2026, 1, 1, 0, 0), "10.0.0.1", null, null);
+
+        assertEquals(event, ClickEvent.decode(event.encode()));
+    }
+
+    @Test
+    void rejectsTruncatedOrForeignRecords() {
+        byte[] encoded = new ClickEvent(UUID.randomUUID(), LocalDateTime.now().withNano(0), "10.0.0.1",
+                "agent", "ref").encode();
+
+        assertNull(ClickEvent.decode(Arrays.copyOf(encoded, encoded.length - 2)));
+        encoded[0] = 99;
+        assertNull(ClickEvent.decode(encoded));
+    }
+}
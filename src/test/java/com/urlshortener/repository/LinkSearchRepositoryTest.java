@@ -0,0 +1,42 @@
+package com.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkSearchRepositoryTest {
+
+    @Test
+    void escapesLikeWildcardsAndTheEscapeCharacter() {
+        assertEquals("50\\% off", LinkSearchRepository.escapeLike("50% off"));
+        assertEquals("snake\\_case", LinkSearchRepository.escapeLike("snake_case"));
+        assertEquals("a\\\\b", LinkSearchRepository.escapeLike("a\\b"));
+        assertEquals("\\\\\\%", LinkSearchRepository.escapeLike("\\%"));
+        assertEquals("plain", LinkSearchRepository.escapeLike("plain"));
+    }
+
+    @Test
+    void escapesRegexMetacharacters() {
+        assertEquals("example\\.com", LinkSearchRepository.escapeRegex("example.com"));
+        assertEquals("a\\+b\\*c\\?\\(d\\)\\[e\\]\\{f\\}\\|g\\^h\\$i\\\\j",
+                LinkSearchRepository.escapeRegex("a+b*c?(d)[e]{f}|g^h$i\\j"));
+    }
+
+    // Postgres' case-insensitive ~* agrees with java.util.regex on this pattern
+    @Test
+    void domainPatternMatchesOnlyTheWholeHost() {
+        Pattern pattern = Pattern.compile(LinkSearchRepository.domainPattern("example.com"), Pattern.CASE_INSENSITIVE);
+        assertTrue(pattern.matcher("https://example.com/path").find());
+        assertTrue(pattern.matcher("http://www.example.com").find());
+        assertTrue(pattern.matcher("https://example.com:8443/").find());
+        assertTrue(pattern.matcher("https://example.com?q=1").find());
+        assertTrue(pattern.matcher("HTTPS://EXAMPLE.COM/Up").find());
+
+        assertFalse(pattern.matcher("https://example.com.evil.io/").find());
+        assertFalse(pattern.matcher("https://notexample.com/").find());
+        assertFalse(pattern.matcher("https://exampleXcom/").find());
+        assertFalse(pattern.matcher("https://evil.io/?next=https://example.com/").find());
+    }
+}
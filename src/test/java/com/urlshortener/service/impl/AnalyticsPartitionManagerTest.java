@@ -0,0 +1,41 @@
+package com.urlshortener.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AnalyticsPartitionManagerTest {
+
+    // As pg_get_expr prints the bounds of a partition on a timestamp column
+    private static final String MONTH = "FOR VALUES FROM ('2025-03-01 00:00:00') TO ('2025-04-01 00:00:00')";
+    private static final String LEGACY = "FOR VALUES FROM (MINVALUE) TO ('2025-11-01 00:00:00')";
+
+    @Test
+    void readsBothBoundsOfAMonthlyPartition() {
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), AnalyticsPartitionManager.lowerBound(MONTH));
+        assertEquals(LocalDateTime.of(2025, 4, 1, 0, 0), AnalyticsPartitionManager.upperBound(MONTH));
+    }
+
+    @Test
+    void legacyPartitionHasNoLowerBound() {
+        assertNull(AnalyticsPartitionManager.lowerBound(LEGACY));
+        assertEquals(LocalDateTime.of(2025, 11, 1, 0, 0), AnalyticsPartitionManager.upperBound(LEGACY));
+    }
+
+    @Test
+    void defaultPartitionHasNoBounds() {
+        assertNull(AnalyticsPartitionManager.lowerBound("DEFAULT"));
+        assertNull(AnalyticsPartitionManager.upperBound("DEFAULT"));
+    }
+
+    @Test
+    void acceptsDateOnlyAndFractionalBounds() {
+        String bound = "FOR VALUES FROM ('2025-03-01') TO ('2025-03-31 12:30:00.5')";
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), AnalyticsPartitionManager.lowerBound(bound));
+        assertEquals(LocalDateTime.of(2025, 3, 31, 12, 30, 0, 500_000_000),
+                AnalyticsPartitionManager.upperBound(bound));
+    }
+}
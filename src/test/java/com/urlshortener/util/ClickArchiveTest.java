@@ -0,0 +1,160 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void summarizesEachLinkFromItsColumns() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Path file = dir.resolve("segment.clka");
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(file)) {
+            writer.add(click(first, START.plusHours(1), "US", "Desktop", "Chrome", "google.com"));
+            writer.add(click(first, START.plusHours(2), "US", "Mobile", "Safari", "Direct"));
+            writer.add(click(first, START.plusDays(1), "DE", "Desktop", "Chrome", "google.com"));
+            writer.add(click(second, START.plusDays(5), "FR", "Tablet", "Firefox", null));
+            assertEquals(4, writer.rows());
+            assertEquals(2, writer.links());
+        }
+
+        ClickArchive.Reader reader = ClickArchive.Reader.open(file);
+        assertEquals(2, reader.blockCount());
+
+        ClickArchive.Summary summary = reader.summarize(first);
+        assertEquals(3, summary.clicks());
+        assertEquals(2L, summary.daily().get(LocalDate.of(2025, 3, 1)));
+        assertEquals(1L, summary.daily().get(LocalDate.of(2025, 3, 2)));
+        assertEquals(2L, summary.countries().get("US"));
+        assertEquals(1L, summary.countries().get("DE"));
+        assertEquals(2L, summary.devices().get("Desktop"));
+        assertEquals(1L, summary.browsers().get("Safari"));
+        assertEquals(2L, summary.referers().get("google.com"));
+
+        ClickArchive.Summary other = reader.summarize(second);
+        assertEquals(1, other.clicks());
+        assertEquals(1L, other.daily().get(LocalDate.of(2025, 3, 6)));
+        assertEquals(1L, other.referers().get(""));
+    }
+
+    @Test
+    void unknownLinkIsEmpty() throws IOException {
+        Path file = dir.resolve("segment.clka");
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(file)) {
+            writer.add(click(UUID.randomUUID(), START, "US", "Desktop", "Chrome", "Direct"));
+        }
+        assertSame(ClickArchive.Summary.EMPTY, ClickArchive.Reader.open(file).summarize(UUID.randomUUID()));
+    }
+
+    @Test
+    void findsEveryLinkAmongMany() throws IOException {
+        Path file = dir.resolve("segment.clka");
+        UUID[] links = new UUID[500];
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(file)) {
+            for (int i = 0; i < links.length; i++) {
+                links[i] = UUID.randomUUID();
+                for (int j = 0; j <= i % 7; j++) {
+                    writer.add(click(links[i], START.plusMinutes(j), "US", "Desktop", "Chrome", "Direct"));
+                }
+            }
+        }
+        ClickArchive.Reader reader = ClickArchive.Reader.open(file);
+        for (int i = 0; i < links.length; i++) {
+            assertEquals(i % 7 + 1, reader.summarize(links[i]).clicks());
+        }
+    }
+
+    @Test
+    void splitsBusyLinksIntoBoundedBlocks() throws IOException {
+        Path file = dir.resolve("segment.clka");
+        UUID before = new UUID(0, 1);
+        UUID busy = new UUID(0, 2);
+        UUID after = new UUID(0, 3);
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(file, 3)) {
+            writer.add(click(before, START, "US", "Desktop", "Chrome", "Direct"));
+            for (int i = 0; i < 10; i++) {
+                writer.add(click(busy, START.plusHours(i * 6L), "DE", "Mobile", "Safari", "Direct"));
+            }
+            writer.add(click(after, START, "US", "Desktop", "Chrome", "Direct"));
+            assertThrows(IllegalStateException.class,
+                    () -> writer.add(click(after, START.minusDays(1), "US", "Desktop", "Chrome", "Direct")));
+        }
+        ClickArchive.Reader reader = ClickArchive.Reader.open(file);
+        assertEquals(6, reader.blockCount());
+        ClickArchive.Summary summary = reader.summarize(busy);
+        assertEquals(10, summary.clicks());
+        assertEquals(4L, summary.daily().get(LocalDate.of(2025, 3, 1)));
+        assertEquals(10L, summary.countries().get("DE"));
+        assertEquals(1, reader.summarize(before).clicks());
+        assertEquals(1, reader.summarize(after).clicks());
+    }
+
+    @Test
+    void repetitiveClicksCompressWell() throws IOException {
+        Path file = dir.resolve("segment.clka");
+        UUID link = UUID.randomUUID();
+        int rows = 100_000;
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.add(click(link, START.plusSeconds(i * 13L), i % 3 == 0 ? "US" : "DE",
+                        i % 2 == 0 ? "Mobile" : "Desktop", "Chrome", "news.ycombinator.com"));
+            }
+        }
+        // Far below the hundred-plus bytes a row takes in Postgres
+        assertTrue(Files.size(file) < rows, "archive is " + Files.size(file) + " bytes");
+        ClickArchive.Summary summary = ClickArchive.Reader.open(file).summarize(link);
+        assertEquals(rows, summary.clicks());
+        assertEquals(rows, summary.referers().get("news.ycombinator.com"));
+    }
+
+    @Test
+    void rejectsLinksThatAreNotContiguous() throws IOException {
+        UUID first = UUID.randomUUID();
+        try (ClickArchive.Writer writer = new ClickArchive.Writer(dir.resolve("segment.clka"))) {
+            writer.add(click(first, START, "US", "Desktop", "Chrome", "Direct"));
+            writer.add(click(UUID.randomUUID(), START, "US", "Desktop", "Chrome", "Direct"));
+            assertThrows(IllegalStateException.class,
+                    () -> writer.add(click(first, START.plusDays(1), "US", "Desktop", "Chrome", "Direct")));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotArchives() throws IOException {
+        Path file = dir.resolve("other.clka");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> ClickArchive.Reader.open(file));
+    }
+
+    @Test
+    void summariesAdd() {
+        ClickArchive.Summary a = new ClickArchive.Summary(2, Map.of(LocalDate.of(2025, 1, 1), 2L),
+                Map.of("US", 2L), Map.of(), Map.of(), Map.of());
+        ClickArchive.Summary b = new ClickArchive.Summary(1, Map.of(LocalDate.of(2025, 1, 1), 1L),
+                Map.of("DE", 1L), Map.of(), Map.of(), Map.of());
+        ClickArchive.Summary total = a.plus(b).plus(ClickArchive.Summary.EMPTY);
+        assertEquals(3, total.clicks());
+        assertEquals(3L, total.daily().get(LocalDate.of(2025, 1, 1)));
+        assertEquals(2, total.countries().size());
+    }
+
+    private static ClickArchive.Click click(UUID link, LocalDateTime at, String country, String device,
+                                            String browser, String referer) {
+        return new ClickArchive.Click(link, at, country, device, browser, referer);
+    }
+}
@@ -0,0 +1,65 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeoIpDatabaseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void looksUpIpv4AndIpv6Ranges() throws IOException {
+        GeoIpDatabase database = load("""
+                # start,end,country,city
+                1.0.0.0,1.0.0.255,AU,Sydney
+                8.8.8.0/24,US,"Mountain View, CA"
+                200.0.0.0,255.255.255.255,BR,
+                2001:db8::/32,DE,Berlin
+                """);
+
+        assertEquals(new GeoIpDatabase.Location("AU", "Sydney"), database.lookup("1.0.0.42"));
+        assertEquals(new GeoIpDatabase.Location("US", "Mountain View, CA"), database.lookup("8.8.8.8"));
+        assertEquals(new GeoIpDatabase.Location("BR", null), database.lookup("255.1.2.3"));
+        assertEquals(new GeoIpDatabase.Location("DE", "Berlin"), database.lookup("2001:db8:1::1"));
+        assertNull(database.lookup("1.0.1.0"));
+        assertNull(database.lookup("2001:db9::1"));
+        assertNull(database.lookup("not-an-ip"));
+    }
+
+    @Test
+    void parsesOnlyIpLiterals() {
+        assertNotNull(GeoIpDatabase.parseLiteral("203.0.113.7"));
+        assertNotNull(GeoIpDatabase.parseLiteral("2001:DB8::1"));
+        assertNotNull(GeoIpDatabase.parseLiteral("::ffff:192.0.2.1"));
+        // Hex-only and dotted hex strings are host names to InetAddress
+        assertNull(GeoIpDatabase.parseLiteral("abc"));
+        assertNull(GeoIpDatabase.parseLiteral("deadbeef"));
+        assertNull(GeoIpDatabase.parseLiteral("cafe.be"));
+        assertNull(GeoIpDatabase.parseLiteral("12345"));
+        assertNull(GeoIpDatabase.parseLiteral("2001:db8::zz"));
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        Path file = dir.resolve("bad.csv");
+        Files.writeString(file, "1.0.0.0,AU\n");
+
+        assertThrows(IOException.class, () -> GeoIpDatabase.load(file));
+    }
+
+    private GeoIpDatabase load(String content) throws IOException {
+        Path file = dir.resolve("geoip.csv");
+        Files.writeString(file, content);
+        return GeoIpDatabase.load(file);
+    }
+}
@@ -0,0 +1,74 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpmcRingBufferTest {
+
+    @Test
+    void rejectsOffersWhenFull() {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+    }
+
+    @Test
+    void deliversEveryElementExactlyOnceUnderContention() throws InterruptedException {
+        MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<>();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicInteger duplicates = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        List<Thread> consumers = new ArrayList<>();
+        for (int c = 0; c < 3; c++) {
+            consumers.add(new Thread(() -> {
+                Integer value;
+                while (producing.get() || ring.size() > 0) {
+                    while ((value = ring.poll()) != null) {
+                        if (seen.put(value, Boolean.TRUE) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        consumers.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
@@ -0,0 +1,87 @@
+package com.urlshortener.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeRendererTest {
+
+    private static final String URL = "https://example.com/some/long/path?utm_source=newsletter&id=42";
+
+    @Test
+    void pngDecodesBackToContent() throws Exception {
+        QRCodeRenderer renderer = new QRCodeRenderer(ErrorCorrectionLevel.M, 2);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(renderer.renderPng(URL, 300)));
+
+        assertEquals(300, image.getWidth());
+        String decoded = new QRCodeReader().decode(new BinaryBitmap(
+                new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+        assertEquals(URL, decoded);
+    }
+
+    @Test
+    void pngMatchesZxingPixelForPixel() throws Exception {
+        QRCodeRenderer renderer = new QRCodeRenderer(ErrorCorrectionLevel.L, 4);
+        for (int size : new int[]{64, 250, 300, 517}) {
+            BitMatrix expected = new QRCodeWriter().encode(URL, BarcodeFormat.QR_CODE, size, size,
+                    Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L, EncodeHintType.MARGIN, 4));
+            BufferedImage reference = MatrixToImageWriter.toBufferedImage(expected);
+            BufferedImage actual = ImageIO.read(new ByteArrayInputStream(renderer.renderPng(URL, size)));
+
+            assertEquals(reference.getWidth(), actual.getWidth(), "width at " + size);
+            assertEquals(reference.getHeight(), actual.getHeight(), "height at " + size);
+            for (int y = 0; y < reference.getHeight(); y++) {
+                for (int x = 0; x < reference.getWidth(); x++) {
+                    assertEquals(reference.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y + " at " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void svgRunsCoverExactlyTheDarkModules() throws Exception {
+        QRCodeRenderer renderer = new QRCodeRenderer(ErrorCorrectionLevel.L, 4);
+        String svg = new String(renderer.renderSvg(URL, 300), StandardCharsets.UTF_8);
+        BitMatrix expected = new QRCodeWriter().encode(URL, BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L, EncodeHintType.MARGIN, 4));
+
+        assertTrue(svg.contains("viewBox=\"0 0 " + expected.getWidth() + " " + expected.getHeight() + "\""));
+        BitMatrix drawn = new BitMatrix(expected.getWidth(), expected.getHeight());
+        String path = svg.substring(svg.indexOf(" d=\"") + 4, svg.lastIndexOf("\"/>"));
+        for (String run : path.split("z")) {
+            // M{x} {y}h{n}v1h-{n}
+            String[] parts = run.substring(1).split("[ hv]");
+            int x = Integer.parseInt(parts[0]);
+            int y = Integer.parseInt(parts[1]);
+            int length = Integer.parseInt(parts[2]);
+            drawn.setRegion(x, y, length, 1);
+        }
+        assertEquals(expected, drawn);
+    }
+
+    @Test
+    void reusedWorkspacesProduceIdenticalOutput() {
+        QRCodeRenderer renderer = new QRCodeRenderer(ErrorCorrectionLevel.L, 4);
+        byte[] large = renderer.renderPng(URL + URL, 900);
+        byte[] first = renderer.renderPng(URL, 300);
+        renderer.renderPng(URL + URL, 900);
+        assertArrayEquals(first, renderer.renderPng(URL, 300));
+        assertArrayEquals(large, renderer.renderPng(URL + URL, 900));
+    }
+}
@@ -0,0 +1,199 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackAcrossSegmentsInOrder() throws IOException {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        for (int i = 0; i < 1000; i++) {
+            log.append(record(i));
+        }
+        assertTrue(log.end().segment() >= 3);
+
+        List<String> read = readAll(log, log.start());
+        assertEquals(1000, read.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("click-" + i, read.get(i));
+        }
+    }
+
+    @Test
+    void batchesResumeWhereTheyStopped() throws IOException {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        for (int i = 0; i < 10; i++) {
+            log.append(record(i));
+        }
+        SegmentLog.Batch first = log.read(log.start(), 4);
+        assertEquals(4, first.records().size());
+        SegmentLog.Batch rest = log.read(first.next(), 100);
+        assertEquals(6, rest.records().size());
+        assertEquals("click-4", new String(rest.records().get(0), StandardCharsets.UTF_8));
+        assertEquals(log.end(), rest.next());
+        assertTrue(log.read(rest.next(), 100).records().isEmpty());
+    }
+
+    @Test
+    void recoversEverythingAfterAProcessCrash() throws IOException {
+        SegmentLog crashed = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        for (int i = 0; i < 300; i++) {
+            crashed.append(record(i));
+        }
+        SegmentLog.Position checkpoint = crashed.read(crashed.start(), 120).next();
+        // No close(): the mapped pages are all that is left, as after a kill -9
+
+        SegmentLog reopened = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        List<String> replayed = readAll(reopened, checkpoint);
+        assertEquals(180, replayed.size());
+        assertEquals("click-120", replayed.get(0));
+
+        reopened.append(record(300));
+        List<String> all = readAll(reopened, reopened.start());
+        assertEquals(301, all.size());
+        assertEquals("click-300", all.get(300));
+    }
+
+    @Test
+    void discardsATornTail() throws IOException {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        for (int i = 0; i < 5; i++) {
+            log.append(record(i));
+        }
+        SegmentLog.Position end = log.end();
+        // A header whose payload never made it to disk, followed by stray bytes
+        try (FileChannel channel = FileChannel.open(segmentFile(end.segment()), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(40);
+            torn.putInt(30).putInt(0x12345678).put("partial".getBytes(StandardCharsets.UTF_8));
+            torn.position(32);
+            torn.putInt(8).putInt(0);
+            torn.flip();
+            channel.write(torn, end.offset());
+        }
+
+        SegmentLog reopened = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        assertEquals(end, reopened.end());
+        assertEquals(5, readAll(reopened, reopened.start()).size());
+
+        reopened.append(record(5));
+        // The torn bytes were cleared, so a short new record cannot be followed by them
+        SegmentLog again = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        List<String> all = readAll(again, again.start());
+        assertEquals(6, all.size());
+        assertEquals("click-5", all.get(5));
+    }
+
+    @Test
+    void skipsCorruptRecordsInsideTheLog() throws IOException {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        SegmentLog.Position afterFirst = log.append(record(0));
+        log.append(record(1));
+        log.append(record(2));
+        // Flip a payload byte of the second record
+        try (FileChannel channel = FileChannel.open(segmentFile(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), afterFirst.offset() + 8);
+        }
+        SegmentLog.Batch batch = log.read(log.start(), 10);
+        assertEquals(2, batch.records().size());
+        assertEquals(1, batch.corrupt());
+    }
+
+    @Test
+    void truncationDeletesOnlyLoadedSegments() throws IOException {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.INTERVAL);
+        for (int i = 0; i < 1000; i++) {
+            log.append(record(i));
+        }
+        SegmentLog.Position checkpoint = log.read(log.start(), 500).next();
+        long before = log.sizeBytes();
+        long freed = log.truncateBefore(checkpoint);
+        assertTrue(freed > 0);
+        assertEquals(before - freed, log.sizeBytes());
+        assertEquals(checkpoint.segment(), log.start().segment());
+        assertEquals(500, readAll(log, checkpoint).size());
+        log.force();
+        log.close();
+
+        SegmentLog reopened = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.INTERVAL);
+        assertEquals(500, readAll(reopened, checkpoint).size());
+    }
+
+    @Test
+    void concurrentAppendsAreAllReadable() throws Exception {
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, SegmentLog.Fsync.NEVER);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 10_000;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    try {
+                        log.append(record(base + i));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        // Read while writing; every record must be whole
+        int seen = 0;
+        SegmentLog.Position position = log.start();
+        while (seen < 8_000) {
+            SegmentLog.Batch batch = log.read(position, 500);
+            assertEquals(0, batch.corrupt());
+            for (byte[] record : batch.records()) {
+                assertTrue(new String(record, StandardCharsets.UTF_8).startsWith("click-"));
+            }
+            seen += batch.records().size();
+            position = batch.next();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(8_000, seen);
+    }
+
+    private static byte[] record(int i) {
+        return ("click-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(SegmentLog log, SegmentLog.Position from) {
+        List<String> out = new ArrayList<>();
+        SegmentLog.Position position = from;
+        while (true) {
+            SegmentLog.Batch batch = log.read(position, 64);
+            if (batch.records().isEmpty()) {
+                return out;
+            }
+            batch.records().forEach(r -> out.add(new String(r, StandardCharsets.UTF_8)));
+            position = batch.next();
+        }
+    }
+
+    private Path segmentFile(long segment) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().equals(String.format("%020d.log", segment)))
+                    .findFirst().orElseThrow();
+        }
+    }
+}
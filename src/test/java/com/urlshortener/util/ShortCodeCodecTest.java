@@ -0,0 +1,101 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortCodeCodecTest {
+
+    private static final long SIX_CHAR_SPACE = 56_800_235_584L; // 62^6
+
+    @Test
+    void permutedCodesAreUniqueAndRoundTrip() {
+        ShortCodeCodec codec = ShortCodeCodec.permuted(6, 10, "test-secret");
+        Set<String> seen = new HashSet<>();
+        for (long id = 0; id < 100_000; id++) {
+            String code = codec.encode(id);
+            assertEquals(6, code.length());
+            assertTrue(seen.add(code), "duplicate code " + code);
+            assertEquals(id, codec.decode(code));
+        }
+    }
+
+    @Test
+    void lengthGrowsOnceKeyspaceIsUsed() {
+        ShortCodeCodec codec = ShortCodeCodec.permuted(6, 10, "test-secret");
+        assertEquals(6, codec.encode(SIX_CHAR_SPACE - 1).length());
+        assertEquals(7, codec.encode(SIX_CHAR_SPACE).length());
+        assertEquals(SIX_CHAR_SPACE, codec.decode(codec.encode(SIX_CHAR_SPACE)));
+        assertEquals(0.5, codec.usage(SIX_CHAR_SPACE / 2), 1e-9);
+    }
+
+    @Test
+    void sequentialCodesCountInBase62() {
+        ShortCodeCodec codec = ShortCodeCodec.sequential(6, 10);
+        assertEquals("000000", codec.encode(0));
+        assertEquals("000010", codec.encode(62));
+        assertEquals("ZZZZZZ", codec.encode(SIX_CHAR_SPACE - 1));
+    }
+
+    @Test
+    void everyShortLengthIsAFullPermutation() {
+        // Small keyspaces exercise cycle-walking: 62^2 = 3844 inside a 2^12 network
+        ShortCodeCodec codec = ShortCodeCodec.permuted(1, 2, "test-secret");
+        Set<String> seen = new HashSet<>();
+        for (long id = 0; id < 62 + 3844; id++) {
+            String code = codec.encode(id);
+            assertTrue(seen.add(code), "duplicate code " + code);
+            assertEquals(id, codec.decode(code));
+        }
+    }
+
+    @Test
+    void keyDecidesTheCodes() {
+        ShortCodeCodec a = ShortCodeCodec.permuted(6, 10, "secret-a");
+        ShortCodeCodec b = ShortCodeCodec.permuted(6, 10, "secret-b");
+        int same = 0;
+        for (long id = 0; id < 1000; id++) {
+            if (a.encode(id).equals(b.encode(id))) {
+                same++;
+            }
+        }
+        assertTrue(same < 3);
+    }
+
+    @Test
+    void consecutiveCodesShareNoStep() {
+        // An affine map would give the same difference between every pair of neighbours
+        ShortCodeCodec codec = ShortCodeCodec.permuted(6, 10, "test-secret");
+        Set<Long> steps = new HashSet<>();
+        for (long id = 0; id < 100; id++) {
+            steps.add(Math.floorMod(local(codec.encode(id + 1)) - local(codec.encode(id)), SIX_CHAR_SPACE));
+        }
+        assertTrue(steps.size() > 95);
+    }
+
+    @Test
+    void sipHashMatchesReferenceVector() {
+        // Key 00..0f, message 00..07 from the SipHash paper's test vectors
+        assertEquals(0x93f5f5799a932462L,
+                ShortCodeCodec.sipHash24(0x0706050403020100L, 0x0f0e0d0c0b0a0908L, 0x0706050403020100L));
+    }
+
+    @Test
+    void exhaustedKeyspaceFails() {
+        ShortCodeCodec codec = ShortCodeCodec.sequential(1, 1);
+        assertEquals("Z", codec.encode(61));
+        assertThrows(IllegalStateException.class, () -> codec.encode(62));
+        assertEquals(-1, codec.decode("00"));
+    }
+
+    private static long local(String code) {
+        long value = 0;
+        for (char c : code.toCharArray()) {
+            value = value * 62 + ShortCodeCodec.ALPHABET.indexOf(c);
+        }
+        return value;
+    }
+}
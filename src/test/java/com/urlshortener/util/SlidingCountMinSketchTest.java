@@ -0,0 +1,58 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingCountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndFindsHeavyHitter() {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(4, 4096, Duration.ofSeconds(60), 6, clock::get);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add("10.0." + (i % 250) + "." + (i % 200));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("203.0.113.7");
+        }
+        assertTrue(sketch.estimate("203.0.113.7") >= 1_000);
+        // Background keys each seen ~2-3 times; collisions may add a little but not a heavy hitter's worth
+        assertTrue(sketch.estimate("10.0.1.1") < 200);
+    }
+
+    @Test
+    void countsSlideOutOfTheWindow() {
+        AtomicLong clock = new AtomicLong(0);
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(4, 1024, Duration.ofSeconds(60), 6, clock::get);
+        for (int i = 0; i < 50; i++) {
+            sketch.add("client");
+        }
+        clock.addAndGet(30_000);
+        assertEquals(51, sketch.add("client"));
+        clock.addAndGet(35_000);
+        // The first 50 were 65s ago, the last one 35s ago
+        assertEquals(1, sketch.estimate("client"));
+        clock.addAndGet(60_000);
+        assertEquals(0, sketch.estimate("client"));
+    }
+
+    @Test
+    void memoryIsFixed() {
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(4, 16384, Duration.ofSeconds(60), 6, () -> 0);
+        assertEquals(6L * 4 * 16384 * 4 + 6 * 8, sketch.memoryBytes());
+    }
+
+    @Test
+    void subnetPrefixes() {
+        assertEquals("192.168.1.0/24", IpSubnets.prefix("192.168.1.77"));
+        assertEquals("192.168.1.0/24", IpSubnets.prefix("::ffff:192.168.1.9"));
+        assertEquals("2001:db8:0:1::/64", IpSubnets.prefix("2001:db8::1:0:0:0:5"));
+        assertEquals("2001:db8:0:1::/64", IpSubnets.prefix("2001:0db8:0000:0001:ffff::1%eth0"));
+        assertEquals("0:0:0:0::/64", IpSubnets.prefix("::1"));
+        assertEquals("not-an-ip", IpSubnets.prefix("not-an-ip"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void startsFullAndDrains() {
+        TokenBucket bucket = new TokenBucket(3, 0.001);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.available() >= 1);
+            bucket.consume(1);
+        }
+        assertTrue(bucket.available() < 1);
+        assertTrue(bucket.nanosUntil(1) > 0);
+    }
+
+    @Test
+    void refillsOverTimeUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 1000);
+        bucket.consume(2);
+        Thread.sleep(20);
+        assertEquals(2, bucket.available(), 1e-9);
+        assertEquals(0, bucket.nanosUntil(1));
+    }
+}
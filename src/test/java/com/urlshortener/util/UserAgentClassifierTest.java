@@ -0,0 +1,49 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserAgentClassifierTest {
+
+    @Test
+    void classifiesCorpusAccurately() throws IOException {
+        List<String> mismatches = new ArrayList<>();
+        int total = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(getClass().getResourceAsStream("/user-agents.tsv")), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", 4);
+                UserAgentClassifier.Result expected = new UserAgentClassifier.Result(
+                        fields[0], fields[1], fields[2], "BOT".equals(fields[0]));
+                UserAgentClassifier.Result actual = UserAgentClassifier.classify(fields[3]);
+                total++;
+                if (!expected.equals(actual)) {
+                    mismatches.add(actual + " <- " + fields[3]);
+                }
+            }
+        }
+
+        assertTrue(total > 0);
+        assertEquals(List.of(), mismatches);
+    }
+
+    @Test
+    void handlesMissingUserAgent() {
+        assertEquals(UserAgentClassifier.UNKNOWN, UserAgentClassifier.classify(null));
+        assertEquals(UserAgentClassifier.UNKNOWN, UserAgentClassifier.classify(" "));
+    }
+}